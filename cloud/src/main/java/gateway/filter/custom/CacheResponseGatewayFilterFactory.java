@@ -0,0 +1,166 @@
+package gateway.filter.custom;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import lombok.Getter;
+import lombok.Setter;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Caches complete GET responses per route. Freshness comes from the upstream Cache-Control (s-maxage, then
+// max-age), Vary selects the variant, and conditional requests are answered with 304 from the cached validators.
+// While a miss is being fetched, identical requests wait for its result instead of going upstream too.
+@Component
+public class CacheResponseGatewayFilterFactory extends AbstractGatewayFilterFactory<CacheResponseGatewayFilterFactory.Config> {
+    private final MeterRegistry meterRegistry;
+
+    public CacheResponseGatewayFilterFactory(ObjectProvider<MeterRegistry> meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        ResponseCache cache = new ResponseCache(config.getMaxEntries(), config.getMaxBytes());
+        Map<String, Sinks.One<Optional<ResponseCache.Entry>>> inFlight = new ConcurrentHashMap<>();
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            String cacheControl = request.getHeaders().getCacheControl();
+            if (request.getMethod() != HttpMethod.GET
+                    || request.getHeaders().containsKey(HttpHeaders.AUTHORIZATION)
+                    || ResponseCache.hasDirective(cacheControl, "no-store")) {
+                count(exchange, "bypass");
+                return chain.filter(exchange);
+            }
+            String key = request.getURI().toString();
+            if (!ResponseCache.hasDirective(cacheControl, "no-cache")) {
+                ResponseCache.Entry entry = cache.get(key, request.getHeaders(), System.currentTimeMillis());
+                if (entry != null) {
+                    count(exchange, "hit");
+                    return serve(exchange, entry);
+                }
+            }
+            Sinks.One<Optional<ResponseCache.Entry>> leader = Sinks.one();
+            Sinks.One<Optional<ResponseCache.Entry>> pending = inFlight.putIfAbsent(key, leader);
+            if (pending != null) {
+                count(exchange, "collapsed");
+                return pending.asMono().flatMap(entry -> entry.isPresent() && entry.get().varyMatches(request.getHeaders())
+                        ? serve(exchange, entry.get())
+                        : chain.filter(exchange));
+            }
+            count(exchange, "miss");
+            CachingResponse response = new CachingResponse(exchange.getResponse(), config.getMaxEntryBytes());
+            return chain.filter(exchange.mutate().response(response).build())
+                    .doOnSuccess(done -> {
+                        ResponseCache.Entry entry = response.toEntry(request.getHeaders());
+                        if (entry != null) {
+                            cache.put(key, entry);
+                        }
+                        leader.tryEmitValue(Optional.ofNullable(entry));
+                    })
+                    .doFinally(signal -> {
+                        inFlight.remove(key, leader);
+                        leader.tryEmitValue(Optional.empty());
+                    });
+        };
+    }
+
+    private Mono<Void> serve(ServerWebExchange exchange, ResponseCache.Entry entry) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.getHeaders().putAll(entry.headers);
+        response.getHeaders().set(HttpHeaders.AGE, Long.toString((System.currentTimeMillis() - entry.storedAt) / 1000));
+        if (entry.notModified(exchange.getRequest().getHeaders())) {
+            count(exchange, "not_modified");
+            response.getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+        response.setStatusCode(entry.status);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(entry.body)));
+    }
+
+    private void count(ServerWebExchange exchange, String result) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        meterRegistry.counter("gateway.cache.requests", "route", route == null ? "unknown" : route.getId(),
+                "result", result).increment();
+    }
+
+    // Copies the body as it streams to the client. Streaming responses and bodies over maxEntryBytes are not kept.
+    private static class CachingResponse extends ServerHttpResponseDecorator {
+        private final int maxEntryBytes;
+        private ByteArrayOutputStream body = new ByteArrayOutputStream();
+        private boolean complete;
+
+        CachingResponse(ServerHttpResponse delegate, int maxEntryBytes) {
+            super(delegate);
+            this.maxEntryBytes = maxEntryBytes;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            return super.writeWith(Flux.from(body)
+                    .doOnNext(this::capture)
+                    .doOnComplete(() -> complete = true));
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            this.body = null;
+            return super.writeAndFlushWith(body);
+        }
+
+        private void capture(DataBuffer buffer) {
+            if (body == null) {
+                return;
+            }
+            int length = buffer.readableByteCount();
+            if (body.size() + length > maxEntryBytes) {
+                body = null;
+                return;
+            }
+            byte[] chunk = new byte[length];
+            buffer.asByteBuffer().get(chunk);
+            body.write(chunk, 0, length);
+        }
+
+        ResponseCache.Entry toEntry(HttpHeaders requestHeaders) {
+            HttpHeaders headers = getHeaders();
+            long ttlMs = ResponseCache.ttlMs(headers.getCacheControl());
+            if (!complete || body == null || getStatusCode() != HttpStatus.OK || ttlMs < 0
+                    || headers.containsKey(HttpHeaders.SET_COOKIE)) {
+                return null;
+            }
+            return ResponseCache.Entry.of(HttpStatus.OK, headers, body.toByteArray(), requestHeaders,
+                    System.currentTimeMillis(), ttlMs);
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class Config {
+        private int maxEntries = 1000;
+        private long maxBytes = 64L * 1024 * 1024;
+        private int maxEntryBytes = 1024 * 1024;
+    }
+}
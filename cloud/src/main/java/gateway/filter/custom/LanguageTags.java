@@ -0,0 +1,67 @@
+package gateway.filter.custom;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Normalized language tags for raw locale strings. Clients send a handful of distinct values, so parsing each
+// once is enough; the cache stops growing at MAX_ENTRIES so arbitrary input cannot fill memory.
+final class LanguageTags {
+    private static final int MAX_ENTRIES = 1024;
+    private static final Map<String, String> tags = new ConcurrentHashMap<>();
+
+    private LanguageTags() {
+    }
+
+    static String of(String raw) {
+        String tag = tags.get(raw);
+        if (tag == null) {
+            tag = Locale.forLanguageTag(raw).toLanguageTag();
+            if (tags.size() < MAX_ENTRIES) {
+                tags.putIfAbsent(raw, tag);
+            }
+        }
+        return tag;
+    }
+
+    // The primary language subtag of a Content-Language value, lower-cased as Locale.getLanguage() would.
+    static String language(String contentLanguage) {
+        int end = contentLanguage.indexOf('-');
+        String language = end < 0 ? contentLanguage.trim() : contentLanguage.substring(0, end).trim();
+        return language.toLowerCase(Locale.ROOT);
+    }
+
+    // Value of a parameter in a raw query string, decoded only when it contains escapes; null if absent, or if its
+    // escapes are malformed, so a bad client value is ignored instead of failing the request.
+    static String queryParam(String rawQuery, String name) {
+        if (rawQuery == null) {
+            return null;
+        }
+        int start = 0;
+        int length = rawQuery.length();
+        while (start < length) {
+            int end = rawQuery.indexOf('&', start);
+            if (end < 0) {
+                end = length;
+            }
+            if (rawQuery.startsWith(name, start)) {
+                int afterName = start + name.length();
+                if (afterName < end && rawQuery.charAt(afterName) == '=') {
+                    String value = rawQuery.substring(afterName + 1, end);
+                    if (value.indexOf('%') < 0 && value.indexOf('+') < 0) {
+                        return value;
+                    }
+                    try {
+                        return URLDecoder.decode(value, StandardCharsets.UTF_8);
+                    } catch (IllegalArgumentException e) {
+                        return null;
+                    }
+                }
+            }
+            start = end + 1;
+        }
+        return null;
+    }
+}
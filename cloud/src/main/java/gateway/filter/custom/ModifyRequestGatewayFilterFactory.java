@@ -6,15 +6,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.stereotype.Component;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.web.server.ServerWebExchange;
-import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.util.StringUtils;
 
-import java.util.Collections;
+import java.net.URI;
 import java.util.Locale;
-import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Component
 public class ModifyRequestGatewayFilterFactory extends AbstractGatewayFilterFactory<ModifyRequestGatewayFilterFactory.Config> {
@@ -24,48 +22,37 @@ public class ModifyRequestGatewayFilterFactory extends AbstractGatewayFilterFact
         super(Config.class);
     }
 
+    // Requests that already carry Accept-Language and have no query string pass through untouched. Otherwise the
+    // request is mutated once: the language tag comes from the locale cache and the query is cut off the raw URI.
     @Override
     public GatewayFilter apply(Config config) {
+        String defaultLanguageTag = config.getDefaultLocale() == null ? null : config.getDefaultLocale().toLanguageTag();
         return (exchange, chain) -> {
-            if (exchange.getRequest()
-                    .getHeaders()
-                    .getAcceptLanguage()
-                    .isEmpty()) {
-
-                String queryParamLocale = exchange.getRequest()
-                        .getQueryParams()
-                        .getFirst("locale");
-
-                Locale requestLocale = Optional.ofNullable(queryParamLocale)
-                        .map(Locale::forLanguageTag)
-                        .orElse(config.getDefaultLocale());
-
-                exchange.getRequest()
-                        .mutate()
-                        .headers(h -> h.setAcceptLanguageAsLocales(Collections.singletonList(requestLocale)));
+            ServerHttpRequest request = exchange.getRequest();
+            URI uri = request.getURI();
+            String rawQuery = uri.getRawQuery();
+            String languageTag = null;
+            if (!StringUtils.hasText(request.getHeaders().getFirst(HttpHeaders.ACCEPT_LANGUAGE))) {
+                String queryParamLocale = LanguageTags.queryParam(rawQuery, "locale");
+                languageTag = queryParamLocale != null ? LanguageTags.of(queryParamLocale) : defaultLanguageTag;
+            }
+            if (languageTag == null && rawQuery == null) {
+                return chain.filter(exchange);
             }
 
-            String allOutgoingRequestLanguages = exchange.getRequest()
-                    .getHeaders()
-                    .getAcceptLanguage()
-                    .stream()
-                    .map(Locale.LanguageRange::getRange)
-                    .collect(Collectors.joining(","));
-
-            logger.info("Modify request output - Request contains Accept-Language header: {}", allOutgoingRequestLanguages);
-
-            ServerWebExchange modifiedExchange = exchange.mutate()
-                    .request(originalRequest -> originalRequest.uri(UriComponentsBuilder.fromUri(exchange.getRequest()
-                                    .getURI())
-                            .replaceQueryParams(new LinkedMultiValueMap<String, String>())
-                            .build()
-                            .toUri()))
-                    .build();
-
-            logger.info("Removed all query params: {}", modifiedExchange.getRequest()
-                    .getURI());
-
-            return chain.filter(modifiedExchange);
+            ServerHttpRequest.Builder modifiedRequest = request.mutate();
+            if (languageTag != null) {
+                String acceptLanguage = languageTag;
+                modifiedRequest.headers(h -> h.set(HttpHeaders.ACCEPT_LANGUAGE, acceptLanguage));
+            }
+            if (rawQuery != null) {
+                String target = uri.toString();
+                modifiedRequest.uri(URI.create(target.substring(0, target.indexOf('?'))));
+            }
+            if (logger.isDebugEnabled()) {
+                logger.debug("Modified request {} with Accept-Language {}", request.getURI(), languageTag);
+            }
+            return chain.filter(exchange.mutate().request(modifiedRequest.build()).build());
         };
     }
 
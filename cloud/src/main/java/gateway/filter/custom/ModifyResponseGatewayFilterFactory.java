@@ -4,13 +4,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
-import java.util.Objects;
-import java.util.Optional;
-
 @Component
 public class ModifyResponseGatewayFilterFactory extends AbstractGatewayFilterFactory<ModifyResponseGatewayFilterFactory.Config> {
 
@@ -20,26 +18,27 @@ public class ModifyResponseGatewayFilterFactory extends AbstractGatewayFilterFac
         super(Config.class);
     }
 
+    // The header is added just before the response is committed; once the upstream body has been written the
+    // headers are read-only. Requests without a locale parameter register nothing.
     @Override
     public GatewayFilter apply(Config config) {
-        return (exchange, chain) -> chain.filter(exchange)
-                .then(Mono.fromRunnable(() -> {
-                    ServerHttpResponse response = exchange.getResponse();
-                    Optional.ofNullable(exchange.getRequest()
-                                    .getQueryParams()
-                                    .getFirst("locale"))
-                            .ifPresent(qp -> {
-                                String responseContentLanguage = Objects.requireNonNull(response.getHeaders()
-                                                .getContentLanguage())
-                                        .getLanguage();
-
-                                response.getHeaders()
-                                        .add("Bael-Custom-Language-Header", responseContentLanguage);
-                                logger.info("Added custom header to Response");
-                            });
-                }));
+        return (exchange, chain) -> {
+            if (LanguageTags.queryParam(exchange.getRequest().getURI().getRawQuery(), "locale") == null) {
+                return chain.filter(exchange);
+            }
+            ServerHttpResponse response = exchange.getResponse();
+            response.beforeCommit(() -> {
+                String contentLanguage = response.getHeaders().getFirst(HttpHeaders.CONTENT_LANGUAGE);
+                if (contentLanguage != null) {
+                    response.getHeaders().add("Bael-Custom-Language-Header", LanguageTags.language(contentLanguage));
+                    logger.debug("Added custom header to Response");
+                }
+                return Mono.empty();
+            });
+            return chain.filter(exchange);
+        };
     }
 
     public static class Config {
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,181 @@
+package gateway.filter.custom;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+// LRU store of complete upstream responses, bounded by entry count and by total body bytes. Critical sections
+// are a map lookup or insert, so a plain lock is cheap enough to take on the event loop.
+class ResponseCache {
+    private final int maxEntries;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+
+    ResponseCache(int maxEntries, long maxBytes) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    synchronized Entry get(String key, HttpHeaders requestHeaders, long now) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (now - entry.storedAt >= entry.ttlMs) {
+            remove(key);
+            return null;
+        }
+        return entry.varyMatches(requestHeaders) ? entry : null;
+    }
+
+    synchronized void put(String key, Entry entry) {
+        Entry old = entries.put(key, entry);
+        if (old != null) {
+            bytes -= old.body.length;
+        }
+        bytes += entry.body.length;
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || bytes > maxBytes) && eldest.hasNext()) {
+            bytes -= eldest.next().getValue().body.length;
+            eldest.remove();
+        }
+    }
+
+    private void remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            bytes -= entry.body.length;
+        }
+    }
+
+    // Freshness lifetime in ms from a response Cache-Control header, or -1 if a shared cache must not store it.
+    static long ttlMs(String cacheControl) {
+        if (cacheControl == null) {
+            return -1;
+        }
+        long maxAge = -1;
+        long sharedMaxAge = -1;
+        for (String directive : cacheControl.split(",")) {
+            String value = directive.trim().toLowerCase(Locale.ROOT);
+            if (value.equals("no-store") || value.equals("no-cache") || value.equals("private")) {
+                return -1;
+            } else if (value.startsWith("s-maxage=")) {
+                sharedMaxAge = seconds(value.substring("s-maxage=".length()));
+            } else if (value.startsWith("max-age=")) {
+                maxAge = seconds(value.substring("max-age=".length()));
+            }
+        }
+        long ttl = sharedMaxAge >= 0 ? sharedMaxAge : maxAge;
+        return ttl > 0 ? ttl * 1000 : -1;
+    }
+
+    static boolean hasDirective(String cacheControl, String directive) {
+        if (cacheControl == null) {
+            return false;
+        }
+        for (String value : cacheControl.split(",")) {
+            if (value.trim().equalsIgnoreCase(directive)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long seconds(String value) {
+        try {
+            return Long.parseLong(value.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    static class Entry {
+        final HttpStatus status;
+        final HttpHeaders headers;
+        final byte[] body;
+        final long storedAt;
+        final long ttlMs;
+        private final List<String> varyNames;
+        private final List<List<String>> varyValues;
+
+        // Returns null when Vary is "*", which can never match a later request.
+        static Entry of(HttpStatus status, HttpHeaders responseHeaders, byte[] body, HttpHeaders requestHeaders,
+                        long storedAt, long ttlMs) {
+            List<String> varyNames = new ArrayList<>();
+            for (String vary : responseHeaders.getVary()) {
+                if (vary.equals("*")) {
+                    return null;
+                }
+                varyNames.add(vary);
+            }
+            List<List<String>> varyValues = new ArrayList<>(varyNames.size());
+            for (String name : varyNames) {
+                varyValues.add(values(requestHeaders, name));
+            }
+            HttpHeaders headers = new HttpHeaders();
+            headers.putAll(responseHeaders);
+            headers.remove(HttpHeaders.TRANSFER_ENCODING);
+            headers.remove(HttpHeaders.CONNECTION);
+            headers.setContentLength(body.length);
+            return new Entry(status, HttpHeaders.readOnlyHttpHeaders(headers), body, storedAt, ttlMs, varyNames, varyValues);
+        }
+
+        private Entry(HttpStatus status, HttpHeaders headers, byte[] body, long storedAt, long ttlMs,
+                      List<String> varyNames, List<List<String>> varyValues) {
+            this.status = status;
+            this.headers = headers;
+            this.body = body;
+            this.storedAt = storedAt;
+            this.ttlMs = ttlMs;
+            this.varyNames = varyNames;
+            this.varyValues = varyValues;
+        }
+
+        boolean varyMatches(HttpHeaders requestHeaders) {
+            for (int i = 0; i < varyNames.size(); i++) {
+                if (!Objects.equals(varyValues.get(i), values(requestHeaders, varyNames.get(i)))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // If-None-Match wins over If-Modified-Since, as in RFC 7232.
+        boolean notModified(HttpHeaders requestHeaders) {
+            List<String> ifNoneMatch = requestHeaders.getIfNoneMatch();
+            if (!ifNoneMatch.isEmpty()) {
+                String etag = headers.getETag();
+                if (etag == null) {
+                    return false;
+                }
+                for (String candidate : ifNoneMatch) {
+                    if (candidate.equals("*") || weak(candidate).equals(weak(etag))) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            long ifModifiedSince = requestHeaders.getIfModifiedSince();
+            long lastModified = headers.getLastModified();
+            return ifModifiedSince >= 0 && lastModified >= 0 && lastModified <= ifModifiedSince;
+        }
+
+        private static String weak(String etag) {
+            return etag.startsWith("W/") ? etag.substring(2) : etag;
+        }
+
+        private static List<String> values(HttpHeaders headers, String name) {
+            List<String> values = headers.get(name);
+            return values == null ? Collections.emptyList() : values;
+        }
+    }
+}
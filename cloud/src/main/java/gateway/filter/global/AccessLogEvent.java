@@ -0,0 +1,26 @@
+package gateway.filter.global;
+
+// A reusable slot of the access-log ring. Fields are written by the request that claimed the slot and read by
+// the writer thread after the slot is published.
+final class AccessLogEvent {
+    long sequence;
+    volatile long published = -1;
+    boolean skipped;
+    long timestamp;
+    String routeId;
+    String method;
+    String path;
+    String remoteAddress;
+    int status;
+    long bytes;
+    long upstreamNanos;
+    long durationNanos;
+
+    void clear() {
+        skipped = false;
+        routeId = null;
+        method = null;
+        path = null;
+        remoteAddress = null;
+    }
+}
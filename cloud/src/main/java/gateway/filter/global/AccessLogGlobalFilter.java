@@ -0,0 +1,114 @@
+package gateway.filter.global;
+
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Runs first so it sees the whole exchange. Sampled requests are timed and their response bytes counted; on
+// completion the results are copied into a preallocated event for AccessLogWriter, without formatting or I/O on
+// the event loop.
+@Component
+public class AccessLogGlobalFilter implements GlobalFilter, Ordered {
+    private final AccessLogWriter writer;
+    private final AccessLogProperties properties;
+
+    public AccessLogGlobalFilter(AccessLogWriter writer, AccessLogProperties properties) {
+        this.writer = writer;
+        this.properties = properties;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route == null ? null : route.getId();
+        if (!sampled(routeId)) {
+            return chain.filter(exchange);
+        }
+        long start = System.nanoTime();
+        MeteredResponse response = new MeteredResponse(exchange.getResponse());
+        return chain.filter(exchange.mutate().response(response).build())
+                .doFinally(signal -> record(exchange.getRequest(), routeId, response, start));
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    private boolean sampled(String routeId) {
+        double rate = properties.getSampleRates().getOrDefault(routeId, properties.getDefaultSampleRate());
+        return rate >= 1 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    private void record(ServerHttpRequest request, String routeId, MeteredResponse response, long start) {
+        AccessLogEvent event = writer.claim();
+        if (event == null) {
+            return;
+        }
+        boolean filled = false;
+        try {
+            long end = System.nanoTime();
+            InetSocketAddress remoteAddress = request.getRemoteAddress();
+            Integer status = response.getRawStatusCode();
+            event.timestamp = System.currentTimeMillis();
+            event.routeId = routeId;
+            event.method = request.getMethodValue();
+            event.path = request.getPath().value();
+            event.remoteAddress = remoteAddress == null ? null : remoteAddress.getHostString();
+            event.status = status == null ? 0 : status;
+            event.bytes = response.bytes;
+            event.upstreamNanos = (response.committedAt == 0 ? end : response.committedAt) - start;
+            event.durationNanos = end - start;
+            filled = true;
+        } finally {
+            // The writer consumes slots in order, so the slot is released even if filling it failed.
+            if (filled) {
+                writer.publish(event);
+            } else {
+                writer.skip(event);
+            }
+        }
+    }
+
+    // Upstream latency is taken when the response headers are committed, before the body streams to the client.
+    private static class MeteredResponse extends ServerHttpResponseDecorator {
+        private long bytes;
+        private long committedAt;
+
+        MeteredResponse(ServerHttpResponse delegate) {
+            super(delegate);
+            delegate.beforeCommit(() -> {
+                committedAt = System.nanoTime();
+                return Mono.empty();
+            });
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            return super.writeWith(Flux.from(body).doOnNext(this::count));
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            return super.writeAndFlushWith(Flux.from(body).map(chunk -> Flux.from(chunk).doOnNext(this::count)));
+        }
+
+        private void count(DataBuffer buffer) {
+            bytes += buffer.readableByteCount();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package gateway.filter.global;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Component
+@ConfigurationProperties("gateway.access-log")
+@Getter
+@Setter
+public class AccessLogProperties {
+    private String path = "logs/access.log";
+    // Number of preallocated events; rounded up to a power of two.
+    private int capacity = 8192;
+    private int batchSize = 512;
+    private long flushIntervalMs = 200;
+    private double defaultSampleRate = 1.0;
+    // Route id to the fraction of its requests that are logged.
+    private Map<String, Double> sampleRates = new HashMap<>();
+}
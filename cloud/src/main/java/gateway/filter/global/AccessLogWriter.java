@@ -0,0 +1,228 @@
+package gateway.filter.global;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Multi-producer, single-consumer ring of preallocated events. Request threads claim a slot with one CAS and never
+// wait: when the writer falls behind by a full ring, the event is dropped and counted. A single writer thread
+// formats published events as JSON lines and appends them to the log file in batches. Every claimed slot must be
+// published or skipped, or the writer stops at it. If the file cannot be opened or written, the writer keeps
+// draining the ring and new events are dropped and counted.
+@Component
+public class AccessLogWriter implements DisposableBean {
+    final Logger logger = LoggerFactory.getLogger(AccessLogWriter.class);
+
+    private final AccessLogEvent[] ring;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    private volatile long consumed;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Path path;
+    private final Counter dropped;
+    private final Counter written;
+    private final Thread worker;
+    private volatile boolean running = true;
+    private volatile boolean failed;
+
+    public AccessLogWriter(AccessLogProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        int capacity = properties.getCapacity() <= 2 ? 2 : Integer.highestOneBit(properties.getCapacity() - 1) << 1;
+        ring = new AccessLogEvent[capacity];
+        for (int i = 0; i < capacity; i++) {
+            ring[i] = new AccessLogEvent();
+        }
+        mask = capacity - 1;
+        batchSize = properties.getBatchSize();
+        flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(properties.getFlushIntervalMs());
+        path = Paths.get(properties.getPath());
+        MeterRegistry registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        dropped = registry.counter("gateway.accesslog.events", "result", "dropped");
+        written = registry.counter("gateway.accesslog.events", "result", "written");
+        worker = new Thread(this::run, "access-log-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    // Returns a slot to fill and publish, or null if the ring is full.
+    AccessLogEvent claim() {
+        if (failed) {
+            dropped.increment();
+            return null;
+        }
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed >= ring.length) {
+                dropped.increment();
+                return null;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+        AccessLogEvent event = ring[(int) (sequence & mask)];
+        event.sequence = sequence;
+        return event;
+    }
+
+    void publish(AccessLogEvent event) {
+        event.published = event.sequence;
+    }
+
+    // Releases a claimed slot without logging it.
+    void skip(AccessLogEvent event) {
+        event.skipped = true;
+        publish(event);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(worker);
+        worker.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    // After destroy() the ring is drained once more, up to the first slot that is claimed but not yet published:
+    // waiting for it could block shutdown on a request that never completes.
+    private void run() {
+        StringBuilder batch = new StringBuilder(batchSize * 256);
+        Writer out = open();
+        try {
+            while (running) {
+                int count = drain(batch);
+                if (count > 0) {
+                    out = write(out, batch, count);
+                    batch.setLength(0);
+                }
+                if (count < batchSize) {
+                    LockSupport.parkNanos(flushIntervalNanos);
+                }
+            }
+            int count;
+            do {
+                count = drain(batch);
+                if (count > 0) {
+                    out = write(out, batch, count);
+                    batch.setLength(0);
+                }
+            } while (count == batchSize);
+        } finally {
+            close(out);
+        }
+    }
+
+    private Writer open() {
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            return Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            logger.error("Unable to open access log {}, events will be dropped", path, e);
+            failed = true;
+            return null;
+        }
+    }
+
+    // Returns the writer to use for the next batch, or null once writing has failed.
+    private Writer write(Writer out, StringBuilder batch, int count) {
+        if (out != null) {
+            try {
+                out.append(batch);
+                out.flush();
+                written.increment(count);
+                return out;
+            } catch (IOException e) {
+                logger.error("Unable to write access log {}, events will be dropped", path, e);
+                failed = true;
+                close(out);
+            }
+        }
+        dropped.increment(count);
+        return null;
+    }
+
+    private void close(Writer out) {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            logger.warn("Unable to close access log {}", path, e);
+        }
+    }
+
+    // A claimed slot that is not yet published ends the batch; it is picked up on the next pass.
+    private int drain(StringBuilder batch) {
+        long sequence = consumed;
+        int count = 0;
+        while (count < batchSize) {
+            AccessLogEvent event = ring[(int) (sequence & mask)];
+            if (event.published != sequence) {
+                break;
+            }
+            if (event.skipped) {
+                dropped.increment();
+            } else {
+                format(event, batch);
+                count++;
+            }
+            event.clear();
+            consumed = ++sequence;
+        }
+        return count;
+    }
+
+    private void format(AccessLogEvent event, StringBuilder out) {
+        out.append("{\"time\":\"").append(Instant.ofEpochMilli(event.timestamp))
+                .append("\",\"route\":");
+        string(event.routeId, out);
+        out.append(",\"method\":");
+        string(event.method, out);
+        out.append(",\"path\":");
+        string(event.path, out);
+        out.append(",\"remote\":");
+        string(event.remoteAddress, out);
+        out.append(",\"status\":").append(event.status)
+                .append(",\"bytes\":").append(event.bytes)
+                .append(",\"upstreamMs\":").append(event.upstreamNanos / 1_000_000.0)
+                .append(",\"durationMs\":").append(event.durationNanos / 1_000_000.0)
+                .append("}\n");
+    }
+
+    private static void string(String value, StringBuilder out) {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        out.append('"');
+    }
+}
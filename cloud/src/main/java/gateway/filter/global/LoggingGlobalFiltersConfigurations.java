@@ -1,20 +0,0 @@
-package gateway.filter.global;
-
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.cloud.gateway.filter.GlobalFilter;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-import reactor.core.publisher.Mono;
-
-@Configuration
-public class LoggingGlobalFiltersConfigurations {
-    final Logger logger =
-            LoggerFactory.getLogger(LoggingGlobalFiltersConfigurations.class);
-
-    @Bean
-    public GlobalFilter postGlobalFilter() {
-        return (exchange, chain) -> chain.filter(exchange)
-                .then(Mono.fromRunnable(() -> logger.info("Global Post Filter executed")));
-    }
-}
@@ -0,0 +1,37 @@
+package gateway.filter.ratelimit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.cloud.gateway.filter.ratelimit.PrincipalNameKeyResolver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+@Configuration
+public class KeyResolverConfiguration {
+    @Value("${gateway.rate-limit.key-header:X-Api-Key}")
+    private String keyHeader;
+
+    // Used by RequestRateLimiter routes that do not name a key-resolver.
+    @Bean
+    @Primary
+    public KeyResolver ipKeyResolver() {
+        return exchange -> {
+            InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+            return remoteAddress == null ? Mono.empty() : Mono.just(remoteAddress.getHostString());
+        };
+    }
+
+    @Bean
+    public KeyResolver headerKeyResolver() {
+        return exchange -> Mono.justOrEmpty(exchange.getRequest().getHeaders().getFirst(keyHeader));
+    }
+
+    @Bean
+    public KeyResolver principalKeyResolver() {
+        return new PrincipalNameKeyResolver();
+    }
+}
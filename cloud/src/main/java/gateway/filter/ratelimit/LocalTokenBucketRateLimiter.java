@@ -0,0 +1,162 @@
+package gateway.filter.ratelimit;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.event.FilterArgsEvent;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// In-memory replacement for RedisRateLimiter behind the stock RequestRateLimiter filter. Each key's bucket is a
+// single AtomicLong holding its theoretical arrival time (GCRA), updated with compare-and-set, so there are no
+// locks and no allocation per request. A bucket whose arrival time has passed is full and equivalent to no bucket
+// at all, so idle keys are swept without changing any decision.
+@Component
+public class LocalTokenBucketRateLimiter extends AbstractRateLimiter<LocalTokenBucketRateLimiter.Config>
+        implements DisposableBean {
+    public static final String CONFIGURATION_PROPERTY_NAME = "local-rate-limiter";
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final Config defaultConfig = new Config();
+    private final Map<String, Map<String, AtomicLong>> buckets = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "rate-limiter-sweeper");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Replaced in tests to step time deterministically.
+    LongSupplier nanoTime = System::nanoTime;
+
+    public LocalTokenBucketRateLimiter(ConfigurationService configurationService,
+                                       ObjectProvider<MeterRegistry> meterRegistry,
+                                       @Value("${gateway.rate-limit.sweep-interval-ms:10000}") long sweepIntervalMs) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        Gauge.builder("gateway.ratelimit.keys", buckets, LocalTokenBucketRateLimiter::size)
+                .register(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+        sweeper.scheduleWithFixedDelay(this::sweep, sweepIntervalMs, sweepIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    // Binds the route's local-rate-limiter.* arguments like the superclass, then rejects settings that would divide
+    // by zero or never admit a request, so a bad route fails when it is loaded instead of on every request.
+    @Override
+    public void onApplicationEvent(FilterArgsEvent event) {
+        super.onApplicationEvent(event);
+        Config config = getConfig().get(event.getRouteId());
+        if (config == null) {
+            return;
+        }
+        try {
+            config.validate();
+        } catch (IllegalArgumentException e) {
+            getConfig().remove(event.getRouteId());
+            throw new IllegalArgumentException("Invalid " + CONFIGURATION_PROPERTY_NAME + " for route "
+                    + event.getRouteId() + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = getConfig().getOrDefault(routeId, defaultConfig);
+        long interval = Math.max(1, NANOS_PER_SECOND / config.getReplenishRate());
+        long increment = interval * config.getRequestedTokens();
+        long capacity = interval * config.getBurstCapacity();
+        AtomicLong bucket = bucket(routeId, id);
+        while (true) {
+            long now = nanoTime.getAsLong();
+            long arrival = bucket.get();
+            long next = (arrival - now > 0 ? arrival : now) + increment;
+            long ahead = next - now;
+            if (ahead > capacity) {
+                return Mono.just(new Response(false, headers(config, 0, ahead - capacity)));
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                return Mono.just(new Response(true, headers(config, (capacity - ahead) / interval, 0)));
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        sweeper.shutdownNow();
+    }
+
+    private AtomicLong bucket(String routeId, String id) {
+        Map<String, AtomicLong> routeBuckets = buckets.get(routeId);
+        if (routeBuckets == null) {
+            routeBuckets = buckets.computeIfAbsent(routeId, route -> new ConcurrentHashMap<>());
+        }
+        AtomicLong bucket = routeBuckets.get(id);
+        return bucket != null ? bucket : routeBuckets.computeIfAbsent(id, key -> new AtomicLong(nanoTime.getAsLong()));
+    }
+
+    // A request racing with the removal of its bucket may be admitted against a fresh, full bucket; that is at
+    // most one extra burst per sweep for a key that was idle a moment ago.
+    void sweep() {
+        long now = nanoTime.getAsLong();
+        for (Map<String, AtomicLong> routeBuckets : buckets.values()) {
+            routeBuckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+        }
+    }
+
+    private Map<String, String> headers(Config config, long remaining, long retryAfterNanos) {
+        if (!config.isIncludeHeaders()) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> headers = new HashMap<>(8);
+        headers.put("X-RateLimit-Remaining", Long.toString(remaining));
+        headers.put("X-RateLimit-Replenish-Rate", Integer.toString(config.getReplenishRate()));
+        headers.put("X-RateLimit-Burst-Capacity", Integer.toString(config.getBurstCapacity()));
+        headers.put("X-RateLimit-Requested-Tokens", Integer.toString(config.getRequestedTokens()));
+        if (retryAfterNanos > 0) {
+            headers.put("Retry-After", Long.toString((retryAfterNanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND));
+        }
+        return headers;
+    }
+
+    private static double size(Map<String, Map<String, AtomicLong>> buckets) {
+        long size = 0;
+        for (Map<String, AtomicLong> routeBuckets : buckets.values()) {
+            size += routeBuckets.size();
+        }
+        return size;
+    }
+
+    @Getter
+    @Setter
+    public static class Config {
+        private int replenishRate = 100;
+        private int burstCapacity = 200;
+        private int requestedTokens = 1;
+        private boolean includeHeaders = true;
+
+        void validate() {
+            if (replenishRate <= 0) {
+                throw new IllegalArgumentException("replenishRate must be positive, was " + replenishRate);
+            }
+            if (requestedTokens <= 0) {
+                throw new IllegalArgumentException("requestedTokens must be positive, was " + requestedTokens);
+            }
+            if (burstCapacity < requestedTokens) {
+                throw new IllegalArgumentException("burstCapacity " + burstCapacity
+                        + " is less than requestedTokens " + requestedTokens);
+            }
+        }
+    }
+}
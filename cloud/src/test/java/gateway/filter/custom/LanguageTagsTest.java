@@ -0,0 +1,65 @@
+package gateway.filter.custom;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class LanguageTagsTest {
+
+    @Test
+    public void findsAParameterAnywhereInTheQuery() {
+        assertEquals("fr", LanguageTags.queryParam("locale=fr", "locale"));
+        assertEquals("fr", LanguageTags.queryParam("a=1&locale=fr&b=2", "locale"));
+        assertEquals("fr", LanguageTags.queryParam("locale=fr&locale=de", "locale"));
+        assertEquals("", LanguageTags.queryParam("locale=&b=2", "locale"));
+    }
+
+    @Test
+    public void ignoresParametersThatOnlyShareASuffixOrPrefix() {
+        assertNull(LanguageTags.queryParam("xlocale=fr", "locale"));
+        assertNull(LanguageTags.queryParam("locales=fr", "locale"));
+        assertEquals("de", LanguageTags.queryParam("xlocale=fr&locale=de", "locale"));
+    }
+
+    @Test
+    public void treatsAParameterWithoutEqualsAsAbsent() {
+        assertNull(LanguageTags.queryParam("locale", "locale"));
+        assertNull(LanguageTags.queryParam("locale&b=2", "locale"));
+        assertEquals("de", LanguageTags.queryParam("locale&locale=de", "locale"));
+    }
+
+    @Test
+    public void decodesPercentEncodedValues() {
+        assertEquals("en-US", LanguageTags.queryParam("locale=en%2DUS", "locale"));
+        assertEquals("de CH", LanguageTags.queryParam("locale=de+CH", "locale"));
+        assertEquals("\u00e9", LanguageTags.queryParam("locale=%C3%A9", "locale"));
+    }
+
+    @Test
+    public void ignoresMalformedEscapes() {
+        assertNull(LanguageTags.queryParam("locale=%zz", "locale"));
+        assertNull(LanguageTags.queryParam("locale=fr%", "locale"));
+        assertNull(LanguageTags.queryParam("locale=%2", "locale"));
+    }
+
+    @Test
+    public void returnsNullWithoutAQuery() {
+        assertNull(LanguageTags.queryParam(null, "locale"));
+        assertNull(LanguageTags.queryParam("", "locale"));
+    }
+
+    @Test
+    public void normalizesLanguageTags() {
+        assertEquals("en-US", LanguageTags.of("EN-us"));
+        // Served from the cache.
+        assertEquals("en-US", LanguageTags.of("EN-us"));
+        assertEquals("und", LanguageTags.of("not a tag"));
+    }
+
+    @Test
+    public void extractsThePrimaryLanguage() {
+        assertEquals("en", LanguageTags.language("en-US"));
+        assertEquals("de", LanguageTags.language(" DE "));
+    }
+}
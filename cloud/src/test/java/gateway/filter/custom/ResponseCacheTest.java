@@ -0,0 +1,114 @@
+package gateway.filter.custom;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ResponseCacheTest {
+    private static final HttpHeaders NO_HEADERS = new HttpHeaders();
+
+    @Test
+    public void entryExpiresAfterItsTtl() {
+        ResponseCache cache = new ResponseCache(10, 1000);
+        cache.put("a", entry(4, 1000, 500));
+
+        assertNotNull(cache.get("a", NO_HEADERS, 1499));
+        assertNull(cache.get("a", NO_HEADERS, 1500));
+    }
+
+    @Test
+    public void expiredEntryReleasesItsBytes() {
+        ResponseCache cache = new ResponseCache(10, 10);
+        cache.put("a", entry(6, 0, 100));
+        cache.put("b", entry(4, 0, 1000));
+        assertNull(cache.get("a", NO_HEADERS, 100));
+
+        cache.put("c", entry(6, 100, 1000));
+
+        assertNotNull(cache.get("b", NO_HEADERS, 100));
+        assertNotNull(cache.get("c", NO_HEADERS, 100));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedBeyondMaxEntries() {
+        ResponseCache cache = new ResponseCache(2, 1000);
+        cache.put("a", entry(1, 0, 1000));
+        cache.put("b", entry(1, 0, 1000));
+        cache.get("a", NO_HEADERS, 1);
+
+        cache.put("c", entry(1, 0, 1000));
+
+        assertNotNull(cache.get("a", NO_HEADERS, 1));
+        assertNull(cache.get("b", NO_HEADERS, 1));
+        assertNotNull(cache.get("c", NO_HEADERS, 1));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedBeyondMaxBytes() {
+        ResponseCache cache = new ResponseCache(10, 10);
+        cache.put("a", entry(4, 0, 1000));
+        cache.put("b", entry(4, 0, 1000));
+
+        cache.put("c", entry(4, 0, 1000));
+
+        assertNull(cache.get("a", NO_HEADERS, 1));
+        assertNotNull(cache.get("b", NO_HEADERS, 1));
+        assertNotNull(cache.get("c", NO_HEADERS, 1));
+    }
+
+    @Test
+    public void replacingAnEntryReleasesTheOldBytes() {
+        ResponseCache cache = new ResponseCache(10, 10);
+        cache.put("a", entry(8, 0, 1000));
+        cache.put("a", entry(8, 0, 1000));
+
+        cache.put("b", entry(2, 0, 1000));
+
+        assertNotNull(cache.get("a", NO_HEADERS, 1));
+        assertNotNull(cache.get("b", NO_HEADERS, 1));
+    }
+
+    @Test
+    public void entryLargerThanMaxBytesIsNotKept() {
+        ResponseCache cache = new ResponseCache(10, 10);
+        cache.put("a", entry(4, 0, 1000));
+
+        cache.put("big", entry(11, 0, 1000));
+
+        assertNull(cache.get("big", NO_HEADERS, 1));
+        assertNull(cache.get("a", NO_HEADERS, 1));
+    }
+
+    @Test
+    public void varyHeadersMustMatch() {
+        ResponseCache cache = new ResponseCache(10, 1000);
+        HttpHeaders response = new HttpHeaders();
+        response.setVary(Collections.singletonList(HttpHeaders.ACCEPT_ENCODING));
+        HttpHeaders gzip = new HttpHeaders();
+        gzip.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        cache.put("a", ResponseCache.Entry.of(HttpStatus.OK, response, new byte[1], gzip, 0, 1000));
+
+        assertNotNull(cache.get("a", gzip, 1));
+        assertNull(cache.get("a", NO_HEADERS, 1));
+    }
+
+    @Test
+    public void ttlPrefersSharedMaxAgeAndHonoursNoStore() {
+        assertEquals(60_000, ResponseCache.ttlMs("public, max-age=10, s-maxage=60"));
+        assertEquals(10_000, ResponseCache.ttlMs("max-age=10"));
+        assertEquals(-1, ResponseCache.ttlMs("max-age=10, no-store"));
+        assertEquals(-1, ResponseCache.ttlMs("private, max-age=10"));
+        assertEquals(-1, ResponseCache.ttlMs("max-age=0"));
+        assertEquals(-1, ResponseCache.ttlMs(null));
+    }
+
+    private static ResponseCache.Entry entry(int size, long storedAt, long ttlMs) {
+        return ResponseCache.Entry.of(HttpStatus.OK, new HttpHeaders(), new byte[size], NO_HEADERS, storedAt, ttlMs);
+    }
+}
@@ -0,0 +1,168 @@
+package gateway.filter.global;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AccessLogWriterTest {
+    @TempDir
+    Path dir;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<AccessLogWriter> writers = new ArrayList<>();
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        for (AccessLogWriter writer : writers) {
+            writer.destroy();
+        }
+    }
+
+    @Test
+    public void writesInClaimOrderOncePublishedOrSkipped() throws Exception {
+        AccessLogWriter writer = writer(dir.resolve("access.log"), 8);
+        AccessLogEvent first = writer.claim();
+        AccessLogEvent second = writer.claim();
+        AccessLogEvent third = writer.claim();
+        fill(third, "/c");
+        writer.publish(third);
+        fill(second, "/b");
+        writer.publish(second);
+
+        Thread.sleep(100);
+        assertEquals(0, written());
+
+        writer.skip(first);
+
+        await(() -> written() == 2);
+        assertEquals(Arrays.asList("/b", "/c"), paths(dir.resolve("access.log")));
+        assertEquals(1, dropped());
+    }
+
+    @Test
+    public void dropsWhenTheRingIsFull() {
+        AccessLogWriter writer = writer(dir.resolve("access.log"), 2);
+        AccessLogEvent first = writer.claim();
+        AccessLogEvent second = writer.claim();
+
+        assertNotNull(first);
+        assertNotNull(second);
+        assertNull(writer.claim());
+        assertEquals(1, dropped());
+    }
+
+    @Test
+    public void reusesSlotsAfterWrappingAround() throws Exception {
+        AccessLogWriter writer = writer(dir.resolve("access.log"), 2);
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            AccessLogEvent event;
+            while ((event = writer.claim()) == null) {
+                Thread.sleep(1);
+            }
+            fill(event, "/" + i);
+            writer.publish(event);
+            expected.add("/" + i);
+        }
+
+        await(() -> written() == 7);
+        assertEquals(expected, paths(dir.resolve("access.log")));
+    }
+
+    @Test
+    public void drainsAndCountsEventsAfterTheLogFails() throws Exception {
+        Path notADirectory = Files.createFile(dir.resolve("file"));
+        AccessLogWriter writer = writer(notADirectory.resolve("access.log"), 8);
+        int claimed = 0;
+        AccessLogEvent event;
+        while ((event = writer.claim()) != null) {
+            fill(event, "/" + claimed++);
+            writer.publish(event);
+        }
+        assertNull(writer.claim());
+
+        // Every published event is drained and dropped, and both refused claims are counted.
+        int total = claimed + 2;
+        await(() -> dropped() == total);
+        assertEquals(0, written());
+    }
+
+    @Test
+    public void stopsAtAnUnpublishedSlotOnShutdown() throws Exception {
+        AccessLogWriter writer = writer(dir.resolve("access.log"), 8);
+        AccessLogEvent published = writer.claim();
+        fill(published, "/a");
+        writer.publish(published);
+        writer.claim();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(2), writer::destroy);
+        writers.remove(writer);
+
+        assertEquals(Collections.singletonList("/a"), paths(dir.resolve("access.log")));
+    }
+
+    private AccessLogWriter writer(Path path, int capacity) {
+        AccessLogProperties properties = new AccessLogProperties();
+        properties.setPath(path.toString());
+        properties.setCapacity(capacity);
+        properties.setBatchSize(4);
+        properties.setFlushIntervalMs(10);
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("meterRegistry", meterRegistry);
+        AccessLogWriter writer = new AccessLogWriter(properties, beanFactory.getBeanProvider(MeterRegistry.class));
+        writers.add(writer);
+        return writer;
+    }
+
+    private static void fill(AccessLogEvent event, String path) {
+        event.timestamp = 1650000000000L;
+        event.routeId = "route";
+        event.method = "GET";
+        event.path = path;
+        event.status = 200;
+    }
+
+    private double written() {
+        return meterRegistry.get("gateway.accesslog.events").tag("result", "written").counter().count();
+    }
+
+    private double dropped() {
+        return meterRegistry.get("gateway.accesslog.events").tag("result", "dropped").counter().count();
+    }
+
+    private static List<String> paths(Path log) throws Exception {
+        List<String> paths = new ArrayList<>();
+        for (String line : Files.readAllLines(log, StandardCharsets.UTF_8)) {
+            int start = line.indexOf("\"path\":\"") + 8;
+            paths.add(line.substring(start, line.indexOf('"', start)));
+        }
+        return paths;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met within 5 s");
+            Thread.sleep(10);
+        }
+    }
+}
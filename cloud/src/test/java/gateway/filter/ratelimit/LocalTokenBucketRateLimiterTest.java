@@ -0,0 +1,163 @@
+package gateway.filter.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.gateway.event.FilterArgsEvent;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter.Response;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LocalTokenBucketRateLimiterTest {
+    private static final String ROUTE = "route";
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LocalTokenBucketRateLimiter limiter;
+    private long now = TimeUnit.SECONDS.toNanos(1000);
+
+    @BeforeEach
+    public void setUp() {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("meterRegistry", meterRegistry);
+        limiter = new LocalTokenBucketRateLimiter(new ConfigurationService(beanFactory, () -> null, () -> null),
+                beanFactory.getBeanProvider(MeterRegistry.class), 60000);
+        limiter.nanoTime = () -> now;
+        // One token every 100 ms, two in the bucket.
+        LocalTokenBucketRateLimiter.Config config = new LocalTokenBucketRateLimiter.Config();
+        config.setReplenishRate(10);
+        config.setBurstCapacity(2);
+        limiter.getConfig().put(ROUTE, config);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        limiter.destroy();
+    }
+
+    @Test
+    public void allowsABurstThenDenies() {
+        Response first = allowed("client");
+        assertTrue(first.isAllowed());
+        assertEquals("1", first.getHeaders().get("X-RateLimit-Remaining"));
+        Response second = allowed("client");
+        assertTrue(second.isAllowed());
+        assertEquals("0", second.getHeaders().get("X-RateLimit-Remaining"));
+
+        Response denied = allowed("client");
+        assertFalse(denied.isAllowed());
+        assertEquals("1", denied.getHeaders().get("Retry-After"));
+    }
+
+    @Test
+    public void admitsOneRequestPerEmissionInterval() {
+        allowed("client");
+        allowed("client");
+
+        advanceMillis(99);
+        assertFalse(allowed("client").isAllowed());
+        advanceMillis(1);
+        assertTrue(allowed("client").isAllowed());
+        assertFalse(allowed("client").isAllowed());
+    }
+
+    @Test
+    public void deniedRequestsDoNotConsumeTokens() {
+        allowed("client");
+        allowed("client");
+        for (int i = 0; i < 10; i++) {
+            assertFalse(allowed("client").isAllowed());
+        }
+
+        advanceMillis(100);
+        assertTrue(allowed("client").isAllowed());
+    }
+
+    @Test
+    public void refillsUpToTheBurstCapacityOnly() {
+        allowed("client");
+        advanceMillis(10_000);
+
+        assertTrue(allowed("client").isAllowed());
+        assertTrue(allowed("client").isAllowed());
+        assertFalse(allowed("client").isAllowed());
+    }
+
+    @Test
+    public void keysHaveIndependentBuckets() {
+        allowed("a");
+        allowed("a");
+
+        assertFalse(allowed("a").isAllowed());
+        assertTrue(allowed("b").isAllowed());
+    }
+
+    @Test
+    public void requestLargerThanTheBurstIsAlwaysDenied() {
+        limiter.getConfig().get(ROUTE).setRequestedTokens(3);
+
+        assertFalse(allowed("client").isAllowed());
+    }
+
+    @Test
+    public void sweepDropsOnlyFullBuckets() {
+        allowed("idle");
+        allowed("busy");
+        allowed("busy");
+        advanceMillis(100);
+
+        limiter.sweep();
+
+        assertEquals(1, meterRegistry.get("gateway.ratelimit.keys").gauge().value());
+    }
+
+    @Test
+    public void bindsRouteArguments() {
+        limiter.onApplicationEvent(new FilterArgsEvent(this, "loaded", args("5", "10", "2")));
+
+        LocalTokenBucketRateLimiter.Config config = limiter.getConfig().get("loaded");
+        assertEquals(5, config.getReplenishRate());
+        assertEquals(10, config.getBurstCapacity());
+        assertEquals(2, config.getRequestedTokens());
+    }
+
+    @Test
+    public void rejectsInvalidRouteArguments() {
+        assertInvalid(args("0", "10", "1"));
+        assertInvalid(args("-1", "10", "1"));
+        assertInvalid(args("5", "10", "0"));
+        assertInvalid(args("5", "1", "2"));
+    }
+
+    private void assertInvalid(Map<String, Object> args) {
+        assertThrows(IllegalArgumentException.class,
+                () -> limiter.onApplicationEvent(new FilterArgsEvent(this, "invalid", args)));
+        assertFalse(limiter.getConfig().containsKey("invalid"));
+    }
+
+    private static Map<String, Object> args(String replenishRate, String burstCapacity, String requestedTokens) {
+        Map<String, Object> args = new HashMap<>();
+        args.put("local-rate-limiter.replenishRate", replenishRate);
+        args.put("local-rate-limiter.burstCapacity", burstCapacity);
+        args.put("local-rate-limiter.requestedTokens", requestedTokens);
+        return args;
+    }
+
+    private Response allowed(String id) {
+        return limiter.isAllowed(ROUTE, id).block();
+    }
+
+    private void advanceMillis(long millis) {
+        now += TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
@@ -0,0 +1,49 @@
+package datajpa.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+// The async post-processor must run after the auto-proxy creator (HIGHEST_PRECEDENCE): it then finds the
+// AsyncQueryMetrics proxy and hands the call to the executor before the aspect starts timing.
+@Configuration
+@EnableAsync(order = Ordered.LOWEST_PRECEDENCE)
+public class AsyncQueryConfig {
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int connectionPoolSize;
+
+    @Value("${foo.async.reserved-connections:2}")
+    private int reservedConnections;
+
+    @Value("${foo.async.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${foo.async.rejection-policy:CALLER_RUNS}")
+    private RejectionPolicy rejectionPolicy;
+
+    // Never run more async queries than there are connections left for synchronous callers.
+    @Bean
+    public ThreadPoolTaskExecutor asyncQueryExecutor(AsyncQueryMetrics asyncQueryMetrics) {
+        int threads = Math.max(1, connectionPoolSize - reservedConnections);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("async-query-");
+        executor.setTaskDecorator(asyncQueryMetrics);
+        executor.setRejectedExecutionHandler(rejectionPolicy == RejectionPolicy.ABORT
+                ? new ThreadPoolExecutor.AbortPolicy()
+                : new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+
+    public enum RejectionPolicy {
+        CALLER_RUNS,
+        ABORT
+    }
+}
@@ -0,0 +1,67 @@
+package datajpa.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Innermost of the aspects, so it times only the query. AsyncQueryConfig's post-processor runs after the auto-proxy
+// creator and puts the async advisor in front of every advisor already on the proxy, so this runs on the executor.
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class AsyncQueryMetrics implements TaskDecorator {
+    private static final ThreadLocal<Long> SUBMITTED_AT = new ThreadLocal<>();
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, Timer> waitTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> executionTimers = new ConcurrentHashMap<>();
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        long submittedAt = System.nanoTime();
+        return () -> {
+            SUBMITTED_AT.set(submittedAt);
+            try {
+                runnable.run();
+            } finally {
+                SUBMITTED_AT.remove();
+            }
+        };
+    }
+
+    @Around("execution(@org.springframework.scheduling.annotation.Async * datajpa.repository.FooCrudRepository.*(..))")
+    public Object measureAsyncQuery(ProceedingJoinPoint pjp) throws Throwable {
+        String query = pjp.getSignature().getName();
+        long start = System.nanoTime();
+        Long submittedAt = SUBMITTED_AT.get();
+        if (submittedAt != null) {
+            waitTimers.computeIfAbsent(query, q -> timer("foo.async.query.wait", q))
+                    .record(start - submittedAt, TimeUnit.NANOSECONDS);
+        }
+        try {
+            return pjp.proceed();
+        } finally {
+            executionTimers.computeIfAbsent(query, q -> timer("foo.async.query.execution", q))
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(String name, String query) {
+        return Timer.builder(name)
+                .tag("query", query)
+                .register(meterRegistry);
+    }
+}
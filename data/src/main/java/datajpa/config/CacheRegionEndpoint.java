@@ -0,0 +1,60 @@
+package datajpa.config;
+
+import lombok.Getter;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+@Endpoint(id = "cacheregions")
+public class CacheRegionEndpoint {
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @ReadOperation
+    public Map<String, Region> regions() {
+        Statistics statistics = statistics();
+        Map<String, Region> regions = new LinkedHashMap<>();
+        for (String name : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(name);
+            if (region != null) {
+                regions.put(name, new Region(region));
+            }
+        }
+        return regions;
+    }
+
+    @ReadOperation
+    public Region region(@Selector String name) {
+        CacheRegionStatistics region = statistics().getCacheRegionStatistics(name);
+        return region == null ? null : new Region(region);
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Getter
+    public static class Region {
+        private final long hitCount;
+        private final long missCount;
+        private final long putCount;
+        private final long elementCountInMemory;
+
+        Region(CacheRegionStatistics statistics) {
+            hitCount = statistics.getHitCount();
+            missCount = statistics.getMissCount();
+            putCount = statistics.getPutCount();
+            elementCountInMemory = statistics.getElementCountInMemory();
+        }
+    }
+}
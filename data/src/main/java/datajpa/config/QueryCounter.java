@@ -0,0 +1,45 @@
+package datajpa.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Counts the statements issued by the current thread between reset() and clear(), for assertions such as
+// "this service call issues at most 2 queries". Threads that never called reset() record nothing, so pooled
+// application threads do not accumulate statements.
+public final class QueryCounter {
+    private static final ThreadLocal<List<String>> STATEMENTS = new ThreadLocal<>();
+
+    private QueryCounter() {
+    }
+
+    public static void reset() {
+        STATEMENTS.set(new ArrayList<>());
+    }
+
+    public static void clear() {
+        STATEMENTS.remove();
+    }
+
+    public static int count() {
+        List<String> statements = STATEMENTS.get();
+        return statements == null ? 0 : statements.size();
+    }
+
+    public static void assertAtMost(int max) {
+        List<String> statements = STATEMENTS.get();
+        if (statements == null) {
+            throw new IllegalStateException("QueryCounter.reset() was not called on this thread");
+        }
+        if (statements.size() > max) {
+            throw new AssertionError("Expected at most " + max + " statements but " + statements.size()
+                    + " were issued: " + String.join("; ", statements));
+        }
+    }
+
+    static void record(String sql) {
+        List<String> statements = STATEMENTS.get();
+        if (statements != null) {
+            statements.add(sql);
+        }
+    }
+}
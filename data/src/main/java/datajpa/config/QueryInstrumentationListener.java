@@ -0,0 +1,167 @@
+package datajpa.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+@Component
+public class QueryInstrumentationListener implements QueryExecutionListener {
+    private static final Logger logger = LoggerFactory.getLogger(QueryInstrumentationListener.class);
+    private static final ThreadLocal<Map<String, Integer>> TRANSACTION_STATEMENTS = new ThreadLocal<>();
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern LITERAL = Pattern.compile("'(?:[^']|'')*'|\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${foo.jdbc.slow-query-ms:200}")
+    private long slowQueryMs;
+
+    @Value("${foo.jdbc.n-plus-one-threshold:5}")
+    private int nPlusOneThreshold;
+
+    @Value("${foo.jdbc.max-statement-tags:500}")
+    private int maxStatementTags;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long elapsed = execInfo.getElapsedTime();
+        for (QueryInfo queryInfo : queryInfoList) {
+            String sql = queryInfo.getQuery();
+            timer(sql).record(elapsed, TimeUnit.MILLISECONDS);
+            QueryCounter.record(sql);
+            countInTransaction(sql);
+            if (elapsed > slowQueryMs) {
+                logger.warn("Slow query ({} ms): {} binds {}", elapsed, sql, bindShape(queryInfo));
+            }
+        }
+    }
+
+    // Each statement gets its own histogram, tagged with the SQL after literals and IN lists are collapsed, so
+    // "in (?, ?)" and "in (?, ?, ?)" share one. Past foo.jdbc.max-statement-tags distinct statements, new ones
+    // are recorded under their type with statement "other", so the number of series stays bounded.
+    private Timer timer(String sql) {
+        String statement = normalize(sql);
+        Timer timer = timers.get(statement);
+        if (timer != null) {
+            return timer;
+        }
+        String type = type(sql);
+        if (timers.size() >= maxStatementTags) {
+            return timers.computeIfAbsent(type, t -> register(t, "other"));
+        }
+        return timers.computeIfAbsent(statement, s -> register(type, s));
+    }
+
+    private Timer register(String type, String statement) {
+        return Timer.builder("foo.jdbc.statement")
+                .tag("type", type)
+                .tag("statement", statement)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    // Repeating the same SELECT many times within one transaction is the usual signature of lazy
+    // associations loaded one by one. A REQUIRES_NEW transaction suspends the synchronization of the outer one,
+    // which puts the outer counts aside until it resumes, so the inner transaction is counted on its own.
+    private void countInTransaction(String sql) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Map<String, Integer> statements = TRANSACTION_STATEMENTS.get();
+        if (statements == null) {
+            Map<String, Integer> counts = new HashMap<>();
+            TRANSACTION_STATEMENTS.set(counts);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void suspend() {
+                    TRANSACTION_STATEMENTS.remove();
+                }
+
+                @Override
+                public void resume() {
+                    TRANSACTION_STATEMENTS.set(counts);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TRANSACTION_STATEMENTS.remove();
+                    report(counts);
+                }
+            });
+            statements = counts;
+        }
+        statements.merge(sql, 1, Integer::sum);
+    }
+
+    private void report(Map<String, Integer> statements) {
+        int total = 0;
+        for (Map.Entry<String, Integer> statement : statements.entrySet()) {
+            total += statement.getValue();
+            if (statement.getValue() >= nPlusOneThreshold && "select".equals(type(statement.getKey()))) {
+                meterRegistry.counter("foo.jdbc.n-plus-one").increment();
+                logger.warn("Possible N+1: {} executed {} times in one transaction", statement.getKey(), statement.getValue());
+            }
+        }
+        meterRegistry.summary("foo.jdbc.statements.per.transaction").record(total);
+    }
+
+    static String normalize(String sql) {
+        String statement = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        statement = LITERAL.matcher(statement).replaceAll("?");
+        return IN_LIST.matcher(statement).replaceAll("(?)");
+    }
+
+    private static String type(String sql) {
+        String trimmed = sql.trim();
+        int end = trimmed.indexOf(' ');
+        String keyword = (end < 0 ? trimmed : trimmed.substring(0, end)).toLowerCase(Locale.ROOT);
+        switch (keyword) {
+            case "select":
+            case "insert":
+            case "update":
+            case "delete":
+                return keyword;
+            default:
+                return "other";
+        }
+    }
+
+    private static String bindShape(QueryInfo queryInfo) {
+        StringJoiner shape = new StringJoiner(", ", "(", ")");
+        if (!queryInfo.getParametersList().isEmpty()) {
+            for (ParameterSetOperation operation : queryInfo.getParametersList().get(0)) {
+                Object[] args = operation.getArgs();
+                Object value = args.length > 1 ? args[1] : null;
+                shape.add(value == null ? "null" : value.getClass().getSimpleName());
+            }
+        }
+        return shape.toString();
+    }
+}
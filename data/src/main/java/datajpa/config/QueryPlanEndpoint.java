@@ -0,0 +1,61 @@
+package datajpa.config;
+
+import lombok.Getter;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+@Endpoint(id = "queryplans")
+public class QueryPlanEndpoint {
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @ReadOperation
+    public QueryPlans queryPlans() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return new QueryPlans(statistics);
+    }
+
+    @Getter
+    public static class QueryPlans {
+        private final long hitCount;
+        private final long missCount;
+        private final double hitRate;
+        private final Map<String, Shape> shapes = new LinkedHashMap<>();
+
+        QueryPlans(Statistics statistics) {
+            hitCount = statistics.getQueryPlanCacheHitCount();
+            missCount = statistics.getQueryPlanCacheMissCount();
+            hitRate = hitCount + missCount == 0 ? 0 : (double) hitCount / (hitCount + missCount);
+            for (String query : statistics.getQueries()) {
+                shapes.put(query, new Shape(statistics.getQueryStatistics(query)));
+            }
+        }
+    }
+
+    @Getter
+    public static class Shape {
+        private final long executionCount;
+        private final long executionAvgTime;
+        private final long executionMaxTime;
+        private final long planCacheHitCount;
+        private final long planCacheMissCount;
+
+        Shape(QueryStatistics statistics) {
+            executionCount = statistics.getExecutionCount();
+            executionAvgTime = statistics.getExecutionAvgTime();
+            executionMaxTime = statistics.getExecutionMaxTime();
+            planCacheHitCount = statistics.getPlanCacheHitCount();
+            planCacheMissCount = statistics.getPlanCacheMissCount();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package datajpa.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Must sit behind a LazyConnectionDataSourceProxy: the read-only flag is only bound to the thread after the
+// transaction manager has asked for a connection.
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    private final JdbcTemplate replica;
+    private final String lagQuery;
+    private final long maxLagMs;
+    // Unmeasured counts as too far behind, so reads stay on the primary until the first lag check succeeds.
+    private final AtomicLong replicaLagMs = new AtomicLong(Long.MAX_VALUE);
+    private final Counter primaryRoutes;
+    private final Counter replicaRoutes;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, String lagQuery, long maxLagMs,
+                                      MeterRegistry meterRegistry) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(Route.PRIMARY, primary);
+        targets.put(Route.REPLICA, replica);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.lagQuery = lagQuery;
+        this.maxLagMs = maxLagMs;
+        primaryRoutes = meterRegistry.counter("foo.datasource.route", "route", "primary");
+        replicaRoutes = meterRegistry.counter("foo.datasource.route", "route", "replica");
+        Gauge.builder("foo.datasource.replica.lag", replicaLagMs, AtomicLong::get)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && replicaLagMs.get() <= maxLagMs) {
+            replicaRoutes.increment();
+            return Route.REPLICA;
+        }
+        primaryRoutes.increment();
+        return Route.PRIMARY;
+    }
+
+    @Scheduled(fixedDelayString = "${foo.datasource.replica.lag-check-ms:1000}")
+    public void checkReplicaLag() {
+        try {
+            Long lag = replica.queryForObject(lagQuery, Long.class);
+            replicaLagMs.set(lag == null ? 0 : lag);
+        } catch (DataAccessException e) {
+            replicaLagMs.set(Long.MAX_VALUE);
+        }
+    }
+
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+}
@@ -1,14 +1,12 @@
 package datajpa.model;
 
-import org.springframework.data.annotation.CreatedBy;
-import org.springframework.data.annotation.CreatedDate;
+import datajpa.service.AuditListener;
 
-import java.time.Instant;
+import javax.persistence.EntityListeners;
+import javax.persistence.MappedSuperclass;
 
+@MappedSuperclass
+@EntityListeners(AuditListener.class)
 public abstract class AbstractAudit {
-    @CreatedBy
-    private User user;
-
-    @CreatedDate
-    private Instant createdDate;
+    public abstract Object getId();
 }
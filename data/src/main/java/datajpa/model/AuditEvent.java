@@ -0,0 +1,25 @@
+package datajpa.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.Instant;
+
+@Entity
+@Table(name = "audit_event")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditEvent {
+    @Id
+    private String eventId;
+    private String entityType;
+    private String entityId;
+    private String action;
+    private String auditor;
+    private Instant occurredAt;
+}
@@ -1,16 +1,24 @@
 package datajpa.model;
 
+import datajpa.service.FooNameIndexListener;
+import datajpa.service.FooOutboxListener;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "foo")
+@EntityListeners({FooNameIndexListener.class, FooOutboxListener.class})
 @Getter
 @Setter
-public class Foo {
+public class Foo extends AbstractAudit {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "foo_seq")
+    @SequenceGenerator(name = "foo_seq", sequenceName = "foo_seq", allocationSize = 50)
     private Integer id;
     private String name;
     private String firstName;
@@ -0,0 +1,14 @@
+package datajpa.model;
+
+import lombok.Value;
+
+// Position after the last row of a keyset slice; pass both values back to fetch the next slice.
+@Value
+public class FooCursor {
+    String lastName;
+    Integer lastId;
+
+    public static FooCursor after(Foo foo) {
+        return new FooCursor(foo.getLastName(), foo.getId());
+    }
+}
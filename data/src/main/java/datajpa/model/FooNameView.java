@@ -0,0 +1,7 @@
+package datajpa.model;
+
+public interface FooNameView {
+    Integer getId();
+
+    String getName();
+}
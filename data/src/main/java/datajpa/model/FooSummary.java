@@ -0,0 +1,9 @@
+package datajpa.model;
+
+import lombok.Value;
+
+@Value
+public class FooSummary {
+    Integer id;
+    String name;
+}
@@ -0,0 +1,16 @@
+package datajpa.model;
+
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+public class KeysetSlice<T> {
+    List<T> content;
+    // Null on the last slice.
+    FooCursor next;
+
+    public boolean hasNext() {
+        return next != null;
+    }
+}
@@ -2,46 +2,95 @@ package datajpa.repository;
 
 import datajpa.model.EmailAddress;
 import datajpa.model.Foo;
+import datajpa.model.FooNameView;
+import datajpa.model.FooSummary;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.util.Streamable;
 import org.springframework.lang.Nullable;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.util.concurrent.ListenableFuture;
 
+import javax.persistence.QueryHint;
+
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 import java.util.stream.Stream;
 
-public interface FooCrudRepository extends Repository<Foo, Long> {
+import static org.hibernate.annotations.QueryHints.CACHEABLE;
+import static org.hibernate.annotations.QueryHints.CACHE_REGION;
+import static org.hibernate.annotations.QueryHints.FETCH_SIZE;
+import static org.hibernate.annotations.QueryHints.READ_ONLY;
+
+public interface FooCrudRepository extends Repository<Foo, Integer>, FooCrudRepositoryCustom {
 
     Foo save(Foo entity);
-    Optional<Foo> findById(Long primaryKey);
+    Optional<Foo> findById(Integer primaryKey);
     Iterable<Foo> findAll();
     long count();
     void delete(Foo entity);
-    boolean existsById(Long primaryKey);
+    @Query("select count(f) > 0 from Foo f where f.id = :id")
+    @QueryHints({
+            @QueryHint(name = CACHEABLE, value = "true"),
+            @QueryHint(name = CACHE_REGION, value = "foo-queries")})
+    boolean existsById(@Param("id") Integer primaryKey);
     Iterable<Foo> findAll(Sort sort);
     Page<Foo> findAll(Pageable pageable);
+    List<Foo> findAllBy(Pageable pageable);
+    List<Foo> findByIdGreaterThanOrderByIdAsc(Integer id, Pageable pageable);
+    @Query("select f from Foo f order by f.lastName asc nulls last, f.id asc")
+    List<Foo> findByOrderByLastNameAscIdAsc(Pageable pageable);
+    @Query("select f from Foo f where f.lastName > :lastName or (f.lastName = :lastName and f.id > :id) or f.lastName is null"
+            + " order by f.lastName asc nulls last, f.id asc")
+    List<Foo> findByLastNameAndIdAfter(@Param("lastName") String lastName, @Param("id") Integer id, Pageable pageable);
+    @Query("select f from Foo f where f.lastName is null and f.id > :id order by f.id asc")
+    List<Foo> findByLastNameNullAndIdAfter(@Param("id") Integer id, Pageable pageable);
     long deleteByName(String name);
     List<Foo> removeByName(String name);
+    @Modifying
+    @Query("delete from Foo f where f.name = :name")
+    int bulkDeleteByName(@Param("name") String name);
+    @Query("select f.id from Foo f where f.name = :name order by f.id")
+    List<Integer> findIdsByName(@Param("name") String name, Pageable pageable);
+    @Modifying
+    @Query("delete from Foo f where f.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Integer> ids);
     Slice<Foo> findByLastname(String lastname, Pageable pageable);
+    List<FooNameView> findAllProjectedBy(Pageable pageable);
+    @Query("select new datajpa.model.FooSummary(f.id, f.name) from Foo f where f.lastName = :lastName")
+    Slice<FooSummary> findSummariesByLastName(@Param("lastName") String lastName, Pageable pageable);
+    @Query("select new datajpa.model.FooSummary(f.id, f.name) from Foo f where f.firstName like concat('%', :firstName, '%')")
+    Streamable<FooSummary> findSummariesByFirstNameContaining(@Param("firstName") String firstName);
     Streamable<Foo> findByFirstnameContaining(String firstname);
     Streamable<Foo> findByLastnameContaining(String lastname);
+    Streamable<Foo> findByFirstNameContainingAndLastNameContaining(String firstName, String lastName);
+    List<Foo> findByIdIn(Collection<Integer> ids);
     @Nullable
+    @QueryHints({
+            @QueryHint(name = CACHEABLE, value = "true"),
+            @QueryHint(name = CACHE_REGION, value = "foo-queries")})
     Foo findByEmailAddress(@Nullable EmailAddress emailAdress);
+    @QueryHints({
+            @QueryHint(name = FETCH_SIZE, value = "500"),
+            @QueryHint(name = READ_ONLY, value = "true"),
+            @QueryHint(name = CACHEABLE, value = "false")})
     Stream<Foo> readAllByFirstnameNotNull();
-    @Async
+    @Async("asyncQueryExecutor")
     Future<Foo> findByFirstname(String firstname);
 
-    @Async
+    @Async("asyncQueryExecutor")
     CompletableFuture<Foo> findOneByFirstname(String firstname);
 
-    @Async
+    @Async("asyncQueryExecutor")
     ListenableFuture<Foo> findOneByLastname(String lastname);
 }
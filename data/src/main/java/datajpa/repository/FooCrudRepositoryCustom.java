@@ -0,0 +1,9 @@
+package datajpa.repository;
+
+import datajpa.model.Foo;
+
+import java.util.List;
+
+public interface FooCrudRepositoryCustom {
+    <S extends Foo> List<S> saveAll(Iterable<S> entities);
+}
@@ -0,0 +1,57 @@
+package datajpa.repository;
+
+import datajpa.model.Foo;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+
+// New entities are persisted directly (no merge SELECT) and the context is flushed once per JDBC batch, so
+// statements go out as hibernate.jdbc.batch_size batches. Only the entities of the flushed batch are detached,
+// so a caller's own managed entities stay managed when this joins its transaction. The returned list still holds
+// every entity, detached; callers with huge inputs should chunk them.
+public class FooCrudRepositoryCustomImpl implements FooCrudRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public <S extends Foo> List<S> saveAll(Iterable<S> entities) {
+        int batchSize = batchSize();
+        List<S> result = new ArrayList<>();
+        List<S> batch = new ArrayList<>(batchSize);
+        for (S entity : entities) {
+            S saved = write(entity);
+            result.add(saved);
+            batch.add(saved);
+            if (batch.size() == batchSize) {
+                flushAndDetach(batch);
+            }
+        }
+        flushAndDetach(batch);
+        return result;
+    }
+
+    private <S extends Foo> S write(S entity) {
+        if (entity.getId() == null) {
+            entityManager.persist(entity);
+            return entity;
+        }
+        return entityManager.merge(entity);
+    }
+
+    private void flushAndDetach(List<? extends Foo> batch) {
+        entityManager.flush();
+        batch.forEach(entityManager::detach);
+        batch.clear();
+    }
+
+    private int batchSize() {
+        Object batchSize = entityManager.getEntityManagerFactory()
+                .getProperties()
+                .get("hibernate.jdbc.batch_size");
+        return batchSize == null ? 50 : Integer.parseInt(batchSize.toString());
+    }
+}
@@ -0,0 +1,58 @@
+package datajpa.repository;
+
+import datajpa.model.Foo;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.function.Consumer;
+
+@Repository
+public class FooStreamRepository {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${foo.stream.fetch-size:500}")
+    private int fetchSize;
+
+    @Value("${foo.stream.clear-every:1000}")
+    private int clearEvery;
+
+    // Forward-only scroll inside a read-only transaction lets the driver use a server-side cursor,
+    // and clearing the session every clearEvery rows keeps the persistence context from growing with the result.
+    @Transactional(readOnly = true)
+    public long streamByFirstNameNotNull(Consumer<Foo> consumer) {
+        return stream("select f from Foo f where f.firstName is not null", consumer);
+    }
+
+    // Loads FooNameIndex, which has to match the primary, so this is not a read-only transaction and is not routed
+    // to a replica that may lag behind. The query itself is still read-only.
+    @Transactional
+    public long streamAll(Consumer<Foo> consumer) {
+        return stream("select f from Foo f", consumer);
+    }
+
+    private long stream(String query, Consumer<Foo> consumer) {
+        Session session = entityManager.unwrap(Session.class);
+        long count = 0;
+        try (ScrollableResults results = session.createQuery(query, Foo.class)
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.IGNORE)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+            while (results.next()) {
+                consumer.accept((Foo) results.get(0));
+                if (++count % clearEvery == 0) {
+                    session.clear();
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -1,16 +1,16 @@
 package datajpa.repository;
 
 import datajpa.model.Foo;
-import org.springframework.cglib.core.Predicate;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.util.Optional;
 
 public interface QueryDslRepository {
-    Optional<Foo> findById(Predicate predicate);
+    Optional<Foo> findById(Specification<Foo> predicate);
 
-    Iterable<Foo> findAll(Predicate predicate);
+    Iterable<Foo> findAll(Specification<Foo> predicate);
 
-    long count(Predicate predicate);
+    long count(Specification<Foo> predicate);
 
-    boolean exists(Predicate predicate);
+    boolean exists(Specification<Foo> predicate);
 }
@@ -0,0 +1,65 @@
+package datajpa.repository;
+
+import datajpa.model.Foo;
+import datajpa.model.Foo_;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import java.util.List;
+import java.util.Optional;
+
+// Literals are bound as parameters (hibernate.criteria.literal_handling_mode=bind), so predicates of the
+// same shape render the same JPQL and hit Hibernate's query plan cache instead of being re-parsed.
+@Repository
+@Transactional(readOnly = true)
+public class QueryDslRepositoryImpl implements QueryDslRepository {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Foo> findById(Specification<Foo> predicate) {
+        List<Foo> results = entityManager.createQuery(select(predicate))
+                .setMaxResults(1)
+                .getResultList();
+        return results.stream().findFirst();
+    }
+
+    @Override
+    public Iterable<Foo> findAll(Specification<Foo> predicate) {
+        return entityManager.createQuery(select(predicate)).getResultList();
+    }
+
+    @Override
+    public long count(Specification<Foo> predicate) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> criteriaQuery = criteriaBuilder.createQuery(Long.class);
+        Root<Foo> root = criteriaQuery.from(Foo.class);
+        criteriaQuery.select(criteriaBuilder.count(root)).where(predicate.toPredicate(root, criteriaQuery, criteriaBuilder));
+        return entityManager.createQuery(criteriaQuery).getSingleResult();
+    }
+
+    @Override
+    public boolean exists(Specification<Foo> predicate) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Integer> criteriaQuery = criteriaBuilder.createQuery(Integer.class);
+        Root<Foo> root = criteriaQuery.from(Foo.class);
+        criteriaQuery.select(root.get(Foo_.id)).where(predicate.toPredicate(root, criteriaQuery, criteriaBuilder));
+        return !entityManager.createQuery(criteriaQuery)
+                .setMaxResults(1)
+                .getResultList()
+                .isEmpty();
+    }
+
+    private CriteriaQuery<Foo> select(Specification<Foo> predicate) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Foo> criteriaQuery = criteriaBuilder.createQuery(Foo.class);
+        Root<Foo> root = criteriaQuery.from(Foo.class);
+        return criteriaQuery.select(root).where(predicate.toPredicate(root, criteriaQuery, criteriaBuilder));
+    }
+}
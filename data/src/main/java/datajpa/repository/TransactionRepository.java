@@ -13,7 +13,7 @@ import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Root;
 import java.util.List;
 
-public class TransactionRepository extends SimpleJpaRepository<Foo, Long> {
+public class TransactionRepository extends SimpleJpaRepository<Foo, Integer> {
     private final EntityManager entityManager;
 
     TransactionRepository(JpaEntityInformation entityInformation,
@@ -0,0 +1,32 @@
+package datajpa.service;
+
+import datajpa.model.AbstractAudit;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+public class AuditListener {
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+
+    @PostPersist
+    public void onInsert(AbstractAudit entity) {
+        record(entity, "INSERT");
+    }
+
+    @PostUpdate
+    public void onUpdate(AbstractAudit entity) {
+        record(entity, "UPDATE");
+    }
+
+    @PostRemove
+    public void onDelete(AbstractAudit entity) {
+        record(entity, "DELETE");
+    }
+
+    private void record(AbstractAudit entity, String action) {
+        auditLogWriter.record(entity.getClass().getSimpleName(), entity.getId(), action);
+    }
+}
@@ -0,0 +1,354 @@
+package datajpa.service;
+
+import datajpa.model.AuditEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Every event is appended to a spool file before it is queued, so events survive a crash and events that
+// did not fit in the bounded queue are replayed from the spool. The committing thread only buffers the spool
+// line; the writer thread flushes it as soon as it wakes up, so a process crash can lose at most the events
+// of that moment. The checkpoint only advances through consecutive sequence numbers, and the spool is
+// truncated once fully written.
+@Component
+public class AuditLogWriter {
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogWriter.class);
+    private static final String INSERT = "insert into audit_event (event_id, entity_type, entity_id, action, auditor, occurred_at)"
+            + " values (?, ?, ?, ?, ?, ?) on conflict (event_id) do nothing";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ObjectProvider<AuditorAware<String>> auditorAware;
+
+    @Value("${foo.audit.delivery:AFTER_COMMIT}")
+    private Delivery delivery;
+
+    @Value("${foo.audit.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${foo.audit.batch-size:200}")
+    private int batchSize;
+
+    @Value("${foo.audit.flush-interval-ms:500}")
+    private long flushIntervalMs;
+
+    @Value("${foo.audit.spool-dir:audit-spool}")
+    private String spoolDir;
+
+    @Value("${foo.audit.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
+
+    private BlockingQueue<Spooled> queue;
+    private Path spoolFile;
+    private Path checkpointFile;
+    private BufferedWriter spool;
+    private long appendedSeq;
+    private volatile long writtenSeq;
+    private volatile boolean overflow;
+    private volatile boolean running;
+    private volatile long drainDeadline = Long.MAX_VALUE;
+    private Thread worker;
+
+    @PostConstruct
+    public void start() throws IOException {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        Path dir = Paths.get(spoolDir);
+        Files.createDirectories(dir);
+        spoolFile = dir.resolve("audit.spool");
+        checkpointFile = dir.resolve("audit.checkpoint");
+        writtenSeq = checkpointFile.toFile().exists()
+                ? Long.parseLong(new String(Files.readAllBytes(checkpointFile), StandardCharsets.UTF_8).trim())
+                : 0;
+        appendedSeq = Math.max(writtenSeq, lastSpooledSeq());
+        // Leftovers from a previous run are written before anything new.
+        overflow = appendedSeq > writtenSeq;
+        spool = Files.newBufferedWriter(spoolFile, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        if (endsWithTornLine(spoolFile)) {
+            spool.newLine();
+        }
+        running = true;
+        worker = new Thread(this::run, "audit-log-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    // The worker drains for at most foo.audit.shutdown-timeout-ms; with the database down it would otherwise retry
+    // forever. Whatever it could not write stays in the spool and is replayed on the next start; inserts are
+    // idempotent by event id. The worker is interrupted if it overruns and joined before the spool is closed.
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        drainDeadline = System.currentTimeMillis() + shutdownTimeoutMs;
+        running = false;
+        worker.join(shutdownTimeoutMs);
+        if (worker.isAlive()) {
+            worker.interrupt();
+            worker.join(shutdownTimeoutMs);
+        }
+        if (worker.isAlive()) {
+            logger.warn("Audit log writer did not stop within {} ms", 2 * shutdownTimeoutMs);
+        }
+        synchronized (this) {
+            spool.close();
+        }
+    }
+
+    public void record(String entityType, Object entityId, String action) {
+        recordAll(entityType, Collections.singletonList(entityId), action);
+    }
+
+    // One event per id, delivered with a single transaction synchronization however many ids there are.
+    public void recordAll(String entityType, Collection<?> entityIds, String action) {
+        AuditorAware<String> auditorAware = this.auditorAware.getIfAvailable();
+        String auditor = auditorAware == null ? null : auditorAware.getCurrentAuditor().orElse(null);
+        Instant occurredAt = Instant.now();
+        List<AuditEvent> events = new ArrayList<>(entityIds.size());
+        for (Object entityId : entityIds) {
+            events.add(new AuditEvent(
+                    UUID.randomUUID().toString(),
+                    entityType,
+                    String.valueOf(entityId),
+                    action,
+                    auditor,
+                    occurredAt));
+        }
+        deliver(events);
+    }
+
+    public void record(AuditEvent event) {
+        deliver(Collections.singletonList(event));
+    }
+
+    private void deliver(List<AuditEvent> events) {
+        if (delivery == Delivery.AFTER_COMMIT && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    append(events);
+                }
+            });
+        } else {
+            append(events);
+        }
+    }
+
+    private synchronized void append(List<AuditEvent> events) {
+        for (AuditEvent event : events) {
+            Spooled spooled = new Spooled(++appendedSeq, event);
+            try {
+                spool.write(spooled.toLine());
+                spool.newLine();
+            } catch (IOException e) {
+                logger.error("Unable to spool audit event {}", event.getEventId(), e);
+            }
+            if (!queue.offer(spooled)) {
+                overflow = true;
+            }
+        }
+    }
+
+    private void run() {
+        List<Spooled> batch = new ArrayList<>(batchSize);
+        while (running || (overflow || !queue.isEmpty()) && System.currentTimeMillis() < drainDeadline) {
+            try {
+                if (overflow) {
+                    overflow = false;
+                    replaySpool();
+                    continue;
+                }
+                Spooled first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                flushSpool();
+                if (first == null) {
+                    truncateIfDrained();
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch, false);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException e) {
+                logger.error("Unable to write audit events, retrying from spool", e);
+                overflow = true;
+                if (!pause()) {
+                    return;
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Queued events must follow the checkpoint without gaps: a missing sequence number overflowed into the
+    // spool, so the batch stops there and the rest is replayed from the spool in order. The spool itself is
+    // complete up to the last flush, except for lines torn by a crash, which cannot be recovered and are passed.
+    private void write(List<Spooled> batch, boolean fromSpool) throws IOException {
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        long seq = writtenSeq;
+        for (Spooled spooled : batch) {
+            if (spooled.seq <= seq) {
+                continue;
+            }
+            if (!fromSpool && spooled.seq != seq + 1) {
+                overflow = true;
+                break;
+            }
+            AuditEvent event = spooled.event;
+            rows.add(new Object[]{event.getEventId(), event.getEntityType(), event.getEntityId(),
+                    event.getAction(), event.getAuditor(), Timestamp.from(event.getOccurredAt())});
+            seq = spooled.seq;
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT, rows);
+        writtenSeq = seq;
+        Path tmp = checkpointFile.resolveSibling("audit.checkpoint.tmp");
+        Files.write(tmp, Long.toString(seq).getBytes(StandardCharsets.UTF_8));
+        Files.move(tmp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Lines after the flushed sequence may still be half-written by a committing thread, so they are left for
+    // the next pass.
+    private void replaySpool() throws IOException {
+        long flushedSeq = flushSpool();
+        List<Spooled> batch = new ArrayList<>(batchSize);
+        try (BufferedReader reader = Files.newBufferedReader(spoolFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Spooled spooled = Spooled.parse(line);
+                if (spooled == null || spooled.seq <= writtenSeq || spooled.seq > flushedSeq) {
+                    continue;
+                }
+                batch.add(spooled);
+                if (batch.size() == batchSize) {
+                    write(batch, true);
+                    batch.clear();
+                }
+            }
+        }
+        write(batch, true);
+    }
+
+    private synchronized long flushSpool() throws IOException {
+        spool.flush();
+        return appendedSeq;
+    }
+
+    private synchronized void truncateIfDrained() throws IOException {
+        if (queue.isEmpty() && !overflow && writtenSeq == appendedSeq && Files.size(spoolFile) > 0) {
+            spool.close();
+            spool = Files.newBufferedWriter(spoolFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+    }
+
+    // A crash in the middle of a line leaves it without a newline; the next line must not be glued to it.
+    private static boolean endsWithTornLine(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() == 0) {
+                return false;
+            }
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.read(last, channel.size() - 1);
+            return last.get(0) != '\n';
+        }
+    }
+
+    private long lastSpooledSeq() throws IOException {
+        long seq = 0;
+        if (!spoolFile.toFile().exists()) {
+            return seq;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(spoolFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Spooled spooled = Spooled.parse(line);
+                if (spooled != null) {
+                    seq = Math.max(seq, spooled.seq);
+                }
+            }
+        }
+        return seq;
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(flushIntervalMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public enum Delivery {
+        AFTER_COMMIT,
+        IMMEDIATE
+    }
+
+    private static class Spooled {
+        private final long seq;
+        private final AuditEvent event;
+
+        Spooled(long seq, AuditEvent event) {
+            this.seq = seq;
+            this.event = event;
+        }
+
+        String toLine() {
+            return seq + "\t" + event.getEventId() + "\t" + clean(event.getEntityType()) + "\t" + clean(event.getEntityId())
+                    + "\t" + event.getAction() + "\t" + clean(event.getAuditor()) + "\t" + event.getOccurredAt().toEpochMilli();
+        }
+
+        // A line torn by a crash mid-write is skipped.
+        static Spooled parse(String line) {
+            String[] fields = line.split("\t", -1);
+            if (fields.length != 7) {
+                return null;
+            }
+            try {
+                return new Spooled(Long.parseLong(fields[0]), new AuditEvent(fields[1], fields[2], fields[3], fields[4],
+                        fields[5].isEmpty() ? null : fields[5], Instant.ofEpochMilli(Long.parseLong(fields[6]))));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        private static String clean(String value) {
+            return value == null ? "" : value.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+        }
+    }
+}
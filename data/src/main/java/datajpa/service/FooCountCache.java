@@ -0,0 +1,36 @@
+package datajpa.service;
+
+import datajpa.repository.FooCrudRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class FooCountCache {
+    @Autowired
+    private FooCrudRepository fooCrudRepository;
+
+    @Value("${foo.count-cache.staleness-ms:30000}")
+    private long stalenessMs;
+
+    private volatile long count = -1;
+    private volatile long loadedAt;
+
+    // Page totals only need to be roughly right, so a count(*) is issued at most once per staleness window.
+    public long count() {
+        long now = System.currentTimeMillis();
+        if (count < 0 || now - loadedAt > stalenessMs) {
+            synchronized (this) {
+                if (count < 0 || now - loadedAt > stalenessMs) {
+                    count = fooCrudRepository.count();
+                    loadedAt = System.currentTimeMillis();
+                }
+            }
+        }
+        return count;
+    }
+
+    public void invalidate() {
+        count = -1;
+    }
+}
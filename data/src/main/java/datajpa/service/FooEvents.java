@@ -0,0 +1,45 @@
+package datajpa.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import datajpa.model.Foo;
+import datajpa.model.OutboxEvent;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public final class FooEvents {
+    public static final String CREATED = "FOO_CREATED";
+    public static final String UPDATED = "FOO_UPDATED";
+    public static final String DELETED = "FOO_DELETED";
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private FooEvents() {
+    }
+
+    // The payload is built from plain fields so lazy associations are never touched while serializing.
+    public static OutboxEvent of(Foo foo, String eventType) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("id", foo.getId());
+        payload.put("name", foo.getName());
+        payload.put("firstName", foo.getFirstName());
+        payload.put("lastName", foo.getLastName());
+        return event(foo.getId(), eventType, payload);
+    }
+
+    // Bulk deletes only know the ids of the rows they removed, so the payload carries just the id.
+    public static OutboxEvent deleted(Integer id) {
+        return event(id, DELETED, Collections.singletonMap("id", id));
+    }
+
+    private static OutboxEvent event(Integer id, String eventType, Map<String, Object> payload) {
+        try {
+            return new OutboxEvent(Foo.class.getSimpleName(), String.valueOf(id), eventType,
+                    objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize Foo " + id, e);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package datajpa.service;
+
+import datajpa.model.Foo;
+import datajpa.repository.FooStreamRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class FooNameIndex {
+    @Autowired
+    private FooStreamRepository fooStreamRepository;
+
+    private final Field firstNames = new Field();
+    private final Field lastNames = new Field();
+    // Ids changed by committed transactions while the startup snapshot is being read; their snapshot rows may
+    // be older than what the listener already applied, so the snapshot skips them.
+    private final Set<Integer> changedWhileLoading = new HashSet<>();
+    private boolean loading;
+    private volatile boolean warm;
+
+    @Async("asyncQueryExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        synchronized (this) {
+            loading = true;
+        }
+        try {
+            fooStreamRepository.streamAll(this::putFromSnapshot);
+        } finally {
+            synchronized (this) {
+                loading = false;
+                changedWhileLoading.clear();
+            }
+        }
+        warm = true;
+    }
+
+    public boolean isWarm() {
+        return warm;
+    }
+
+    public Set<Integer> firstNameContaining(String fragment) {
+        return firstNames.containing(fragment);
+    }
+
+    public Set<Integer> lastNameContaining(String fragment) {
+        return lastNames.containing(fragment);
+    }
+
+    // Ids whose first name contains firstName or whose last name contains lastName.
+    public Set<Integer> eitherContaining(String firstName, String lastName) {
+        Set<Integer> ids = firstNames.containing(firstName);
+        ids.addAll(lastNames.containing(lastName));
+        return ids;
+    }
+
+    // Ids whose first name contains firstName and whose last name contains lastName.
+    public Set<Integer> bothContaining(String firstName, String lastName) {
+        Set<Integer> ids = firstNames.containing(firstName);
+        if (!ids.isEmpty()) {
+            ids.retainAll(lastNames.containing(lastName));
+        }
+        return ids;
+    }
+
+    public void put(Foo foo) {
+        put(foo.getId(), foo.getFirstName(), foo.getLastName());
+    }
+
+    public synchronized void put(Integer id, String firstName, String lastName) {
+        if (loading) {
+            changedWhileLoading.add(id);
+        }
+        firstNames.put(id, firstName);
+        lastNames.put(id, lastName);
+    }
+
+    public void remove(Foo foo) {
+        remove(foo.getId());
+    }
+
+    public synchronized void remove(Integer id) {
+        if (loading) {
+            changedWhileLoading.add(id);
+        }
+        firstNames.remove(id);
+        lastNames.remove(id);
+    }
+
+    private synchronized void putFromSnapshot(Foo foo) {
+        if (!changedWhileLoading.contains(foo.getId())) {
+            firstNames.put(foo.getId(), foo.getFirstName());
+            lastNames.put(foo.getId(), foo.getLastName());
+        }
+    }
+
+    private static class Field {
+        private final Map<String, Set<Integer>> postings = new ConcurrentHashMap<>();
+        private final Map<Integer, String> values = new ConcurrentHashMap<>();
+
+        void put(Integer id, String value) {
+            remove(id);
+            if (value == null) {
+                return;
+            }
+            String normalized = value.toLowerCase(Locale.ROOT);
+            values.put(id, normalized);
+            for (String trigram : trigrams(normalized)) {
+                postings.computeIfAbsent(trigram, t -> ConcurrentHashMap.newKeySet()).add(id);
+            }
+        }
+
+        void remove(Integer id) {
+            String previous = values.remove(id);
+            if (previous == null) {
+                return;
+            }
+            for (String trigram : trigrams(previous)) {
+                Set<Integer> ids = postings.get(trigram);
+                if (ids != null) {
+                    ids.remove(id);
+                }
+            }
+        }
+
+        // Every match contains all trigrams of the fragment, so the smallest posting list is a complete candidate
+        // set; candidates are confirmed against the stored value. Fragments shorter than a trigram scan the values.
+        // A null fragment matches nothing, as a like with a null pattern does in the database.
+        Set<Integer> containing(String fragment) {
+            if (fragment == null) {
+                return new HashSet<>();
+            }
+            String normalized = fragment.toLowerCase(Locale.ROOT);
+            Set<Integer> result = new HashSet<>();
+            if (normalized.length() < 3) {
+                values.forEach((id, value) -> {
+                    if (value.contains(normalized)) {
+                        result.add(id);
+                    }
+                });
+                return result;
+            }
+            Set<Integer> smallest = null;
+            for (String trigram : trigrams(normalized)) {
+                Set<Integer> ids = postings.getOrDefault(trigram, Collections.emptySet());
+                if (smallest == null || ids.size() < smallest.size()) {
+                    smallest = ids;
+                }
+            }
+            for (Integer id : smallest) {
+                String value = values.get(id);
+                if (value != null && value.contains(normalized)) {
+                    result.add(id);
+                }
+            }
+            return result;
+        }
+
+        private static Set<String> trigrams(String value) {
+            Set<String> trigrams = new HashSet<>();
+            for (int i = 0; i + 3 <= value.length(); i++) {
+                trigrams.add(value.substring(i, i + 3));
+            }
+            return trigrams;
+        }
+    }
+}
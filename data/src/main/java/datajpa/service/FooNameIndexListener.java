@@ -0,0 +1,45 @@
+package datajpa.service;
+
+import datajpa.model.Foo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+// The callbacks run at flush, before the transaction commits, so the index is only changed once the change is
+// committed; a rolled-back write leaves it untouched.
+public class FooNameIndexListener {
+    @Autowired
+    private FooNameIndex fooNameIndex;
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Foo foo) {
+        Integer id = foo.getId();
+        String firstName = foo.getFirstName();
+        String lastName = foo.getLastName();
+        afterCommit(() -> fooNameIndex.put(id, firstName, lastName));
+    }
+
+    @PostRemove
+    public void onRemove(Foo foo) {
+        Integer id = foo.getId();
+        afterCommit(() -> fooNameIndex.remove(id));
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,30 @@
+package datajpa.service;
+
+import datajpa.model.Foo;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+// The callbacks run at flush, inside the transaction that writes the Foo, so every write path gets its outbox row
+// and the row commits or rolls back with the entity. OutboxRelay publishes it to Kafka afterwards.
+public class FooOutboxListener {
+    @Autowired
+    private OutboxWriter outboxWriter;
+
+    @PostPersist
+    public void onInsert(Foo foo) {
+        outboxWriter.append(FooEvents.of(foo, FooEvents.CREATED));
+    }
+
+    @PostUpdate
+    public void onUpdate(Foo foo) {
+        outboxWriter.append(FooEvents.of(foo, FooEvents.UPDATED));
+    }
+
+    @PostRemove
+    public void onDelete(Foo foo) {
+        outboxWriter.append(FooEvents.of(foo, FooEvents.DELETED));
+    }
+}
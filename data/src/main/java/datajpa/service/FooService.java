@@ -1,16 +1,30 @@
 package datajpa.service;
 
 import datajpa.model.Foo;
+import datajpa.model.FooCursor;
+import datajpa.model.FooNameView;
+import datajpa.model.KeysetSlice;
+import datajpa.model.OutboxEvent;
 import datajpa.repository.FooCrudRepository;
+import datajpa.repository.FooStreamRepository;
 import datajpa.repository.QueryDslRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.data.util.Streamable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.stream.Stream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class FooService {
@@ -18,26 +32,160 @@ public class FooService {
     private FooCrudRepository fooCrudRepository;
     @Autowired
     private QueryDslRepository queryDslRepository;
+    @Autowired
+    private FooCountCache fooCountCache;
+    @Autowired
+    private FooStreamRepository fooStreamRepository;
+    @Autowired
+    private FooNameIndex fooNameIndex;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+    @Autowired
+    private OutboxWriter outboxWriter;
+
+    @Value("${foo.bulk-delete.chunk-size:1000}")
+    private int bulkDeleteChunkSize;
+
+    // Imports go through the batched saveAll, so inserts are sent hibernate.jdbc.batch_size rows at a time.
+    @Transactional
+    public List<Foo> saveAll(List<Foo> foos) {
+        return fooCrudRepository.saveAll(foos);
+    }
 
+    @Transactional(readOnly = true)
     public Page<Foo> findAllFoo(int page, int size) {
-        Page<Foo> users = fooCrudRepository.findAll(PageRequest.of(page, size));
+        Pageable pageable = PageRequest.of(page, size);
+        Page<Foo> users = PageableExecutionUtils.getPage(fooCrudRepository.findAllBy(pageable), pageable, fooCountCache::count);
         return users;
     }
 
+    @Transactional(readOnly = true)
+    public Page<FooNameView> findAllFooNames(int page, int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        return PageableExecutionUtils.getPage(fooCrudRepository.findAllProjectedBy(pageable), pageable, fooCountCache::count);
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetSlice<Foo> findFooAfter(Integer lastId, int size) {
+        List<Foo> rows = fooCrudRepository.findByIdGreaterThanOrderByIdAsc(
+                lastId == null ? Integer.MIN_VALUE : lastId, PageRequest.of(0, size + 1));
+        return toSlice(rows, size);
+    }
+
+    // Rows are ordered by lastName with nulls last, then id. Only a null lastId starts from the first slice; a null
+    // lastName with a lastId means the cursor is already inside the trailing null-lastName rows.
+    @Transactional(readOnly = true)
+    public KeysetSlice<Foo> findFooByLastNameAfter(String lastName, Integer lastId, int size) {
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Foo> rows;
+        if (lastId == null) {
+            rows = fooCrudRepository.findByOrderByLastNameAscIdAsc(limit);
+        } else if (lastName == null) {
+            rows = fooCrudRepository.findByLastNameNullAndIdAfter(lastId, limit);
+        } else {
+            rows = fooCrudRepository.findByLastNameAndIdAfter(lastName, lastId, limit);
+        }
+        return toSlice(rows, size);
+    }
+
+    private KeysetSlice<Foo> toSlice(List<Foo> rows, int size) {
+        if (rows.size() <= size) {
+            return new KeysetSlice<>(rows, null);
+        }
+        List<Foo> content = rows.subList(0, size);
+        return new KeysetSlice<>(content, FooCursor.after(content.get(size - 1)));
+    }
+
     public void findAndTypeSortAllFoo(int page, int size) {
         Sort.TypedSort<Foo> person = Sort.sort(Foo.class);
         Sort sort = person.by(Foo::getId).ascending()
                 .and(person.by(Foo::getName).descending());
     }
 
-    public void findByFirstNameAndLastName() {
-        Streamable<Foo> result = fooCrudRepository.findByFirstnameContaining("av")
-                .and(fooCrudRepository.findByLastnameContaining("ea"));
+    // Foos whose first name contains firstName or whose last name contains lastName, each returned once. The ids
+    // from FooNameIndex are current on the primary, so these lookups are not read-only transactions and are not
+    // routed to a replica that may not have the rows yet.
+    @Transactional
+    public Streamable<Foo> findByFirstNameAndLastName(String firstName, String lastName) {
+        if (!fooNameIndex.isWarm()) {
+            Map<Integer, Foo> byId = new LinkedHashMap<>();
+            fooCrudRepository.findByFirstnameContaining(firstName)
+                    .and(fooCrudRepository.findByLastnameContaining(lastName))
+                    .forEach(foo -> byId.putIfAbsent(foo.getId(), foo));
+            return Streamable.of(byId.values());
+        }
+        return findByIds(fooNameIndex.eitherContaining(firstName, lastName));
+    }
+
+    // Foos whose first name contains firstName and whose last name contains lastName.
+    @Transactional
+    public Streamable<Foo> findByFirstNameContainingAndLastNameContaining(String firstName, String lastName) {
+        if (!fooNameIndex.isWarm()) {
+            return fooCrudRepository.findByFirstNameContainingAndLastNameContaining(firstName, lastName);
+        }
+        return findByIds(fooNameIndex.bothContaining(firstName, lastName));
+    }
+
+    private Streamable<Foo> findByIds(Set<Integer> ids) {
+        return ids.isEmpty() ? Streamable.empty() : Streamable.of(fooCrudRepository.findByIdIn(ids));
     }
 
     public void readByFirstName() {
-        try (Stream<Foo> stream = fooCrudRepository.readAllByFirstnameNotNull()) {
-            stream.forEach(foo -> {});
+        fooStreamRepository.streamByFirstNameNotNull(foo -> {});
+    }
+
+    // Bulk deletes bypass the persistence context, so no @PreRemove/@PostRemove callbacks run. Hibernate still
+    // evicts the Foo cache region and cached query results. Rows are deleted foo.bulk-delete.chunk-size ids per
+    // transaction, so locks are held briefly and only one chunk of ids, audit events and outbox rows is held in
+    // memory however many rows match. Each chunk's ids are read in its own transaction, so the audit trail and the
+    // outbox get a DELETE for exactly the rows deleted, and the name index drops those ids once the chunk commits.
+    public long bulkDeleteByName(String name) {
+        long deleted = 0;
+        List<Integer> chunk;
+        do {
+            chunk = deleteChunkByName(name);
+            deleted += chunk.size();
+        } while (chunk.size() == bulkDeleteChunkSize);
+        return deleted;
+    }
+
+    // Same as bulkDeleteByName, but also returns the removed ids.
+    public List<Integer> bulkRemoveByName(String name) {
+        List<Integer> removed = new ArrayList<>();
+        List<Integer> chunk;
+        do {
+            chunk = deleteChunkByName(name);
+            removed.addAll(chunk);
+        } while (chunk.size() == bulkDeleteChunkSize);
+        return removed;
+    }
+
+    private List<Integer> deleteChunkByName(String name) {
+        List<Integer> chunk = transactionTemplate.execute(status -> {
+            List<Integer> ids = fooCrudRepository.findIdsByName(name, PageRequest.of(0, bulkDeleteChunkSize));
+            if (!ids.isEmpty()) {
+                fooCrudRepository.deleteByIdIn(ids);
+                recordDeleted(ids);
+            }
+            return ids;
+        });
+        evictDeleted(chunk);
+        return chunk;
+    }
+
+    private void recordDeleted(List<Integer> ids) {
+        auditLogWriter.recordAll(Foo.class.getSimpleName(), ids, "DELETE");
+        List<OutboxEvent> events = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            events.add(FooEvents.deleted(id));
         }
+        outboxWriter.appendAll(events);
+    }
+
+    private void evictDeleted(List<Integer> ids) {
+        ids.forEach(fooNameIndex::remove);
+        fooCountCache.invalidate();
     }
 }
@@ -0,0 +1,202 @@
+package datajpa.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.concurrent.ListenableFuture;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Publishes outbox rows in id order. A short transaction locks the oldest unsent rows and claims them for
+// foo.outbox.claim-ms; the rows are published after it commits, so no row lock is held while waiting for Kafka
+// acks, and a second transaction marks them sent. Delivery is at-least-once: a relay that dies mid-batch leaves
+// its claim to expire and the rows are published again. Consumers can drop duplicates by the outbox-id header.
+@Component
+public class OutboxRelay {
+    // FOR UPDATE without SKIP LOCKED, and a live claim on the head rows stops the poll: a second relay instance
+    // waits instead of publishing events out of order. The partial index outbox_event_unsent serves this query.
+    private static final String SELECT_UNSENT = "select id, aggregate_id, event_type, payload, created_at, claimed_until"
+            + " from outbox_event where sent_at is null order by id limit ? for update";
+    private static final String CLAIM = "update outbox_event set claimed_until = ? where id = ?";
+    private static final String RELEASE = "update outbox_event set claimed_until = null where id = ?";
+    private static final String MARK_SENT = "update outbox_event set sent_at = ?, claimed_until = null where id = ?";
+    // Sent rows are at the head of the primary key, so each chunk is found without scanning the unsent tail.
+    private static final String PRUNE = "delete from outbox_event where id in (select id from outbox_event"
+            + " where sent_at < ? order by id limit ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private KafkaTemplate<String, String> kafkaTemplate;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${foo.outbox.topic:foo-events}")
+    private String topic;
+
+    @Value("${foo.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${foo.outbox.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    // Must outlast a whole batch of sends, or another relay republishes rows that are still in flight.
+    @Value("${foo.outbox.claim-ms:30000}")
+    private long claimMs;
+
+    @Value("${foo.outbox.retention-ms:86400000}")
+    private long retentionMs;
+
+    private final AtomicLong lagMs = new AtomicLong();
+    private Counter relayed;
+    private Counter pruned;
+    private Timer batchLatency;
+    private Timer delay;
+
+    @PostConstruct
+    public void registerMetrics() {
+        relayed = meterRegistry.counter("foo.outbox.relayed");
+        pruned = meterRegistry.counter("foo.outbox.pruned");
+        batchLatency = meterRegistry.timer("foo.outbox.batch");
+        delay = Timer.builder("foo.outbox.delay")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("foo.outbox.lag", lagMs, AtomicLong::get)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    // Keeps draining while batches come back full, then sleeps for foo.outbox.poll-interval-ms.
+    @Scheduled(fixedDelayString = "${foo.outbox.poll-interval-ms:200}")
+    public void relay() {
+        int sent;
+        do {
+            sent = batchLatency.record(this::relayBatch);
+        } while (sent == batchSize);
+    }
+
+    // Deletes sent rows older than foo.outbox.retention-ms, one short transaction per foo.outbox.batch-size rows.
+    @Scheduled(fixedDelayString = "${foo.outbox.prune-interval-ms:60000}")
+    public void prune() {
+        Timestamp cutoff = Timestamp.from(Instant.now().minusMillis(retentionMs));
+        int deleted;
+        do {
+            deleted = transactionTemplate.execute(status -> jdbcTemplate.update(PRUNE, cutoff, batchSize));
+            pruned.increment(deleted);
+        } while (deleted == batchSize);
+    }
+
+    private int relayBatch() {
+        List<Row> rows = transactionTemplate.execute(status -> claim());
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        try {
+            publish(rows);
+        } catch (RuntimeException e) {
+            release(rows);
+            throw e;
+        }
+        Instant now = Instant.now();
+        List<Object[]> sent = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            sent.add(new Object[]{Timestamp.from(now), row.id});
+            delay.record(Duration.between(row.createdAt, now));
+        }
+        transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(MARK_SENT, sent));
+        relayed.increment(rows.size());
+        return rows.size();
+    }
+
+    private List<Row> claim() {
+        Instant now = Instant.now();
+        List<Row> rows = jdbcTemplate.query(SELECT_UNSENT, (rs, i) -> new Row(rs.getLong("id"),
+                rs.getString("aggregate_id"), rs.getString("event_type"), rs.getString("payload"),
+                rs.getTimestamp("created_at").toInstant(), rs.getTimestamp("claimed_until")), batchSize);
+        lagMs.set(rows.isEmpty() ? 0 : Duration.between(rows.get(0).createdAt, now).toMillis());
+        for (Row row : rows) {
+            if (row.claimedUntil != null && row.claimedUntil.toInstant().isAfter(now)) {
+                return Collections.emptyList();
+            }
+        }
+        Timestamp claimedUntil = Timestamp.from(now.plusMillis(claimMs));
+        List<Object[]> claims = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            claims.add(new Object[]{claimedUntil, row.id});
+        }
+        jdbcTemplate.batchUpdate(CLAIM, claims);
+        return rows;
+    }
+
+    private void publish(List<Row> rows) {
+        List<ListenableFuture<SendResult<String, String>>> sends = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            ProducerRecord<String, String> record = new ProducerRecord<>(topic, row.aggregateId, row.payload);
+            record.headers().add("outbox-id", Long.toString(row.id).getBytes(StandardCharsets.UTF_8));
+            record.headers().add("event-type", row.eventType.getBytes(StandardCharsets.UTF_8));
+            sends.add(kafkaTemplate.send(record));
+        }
+        kafkaTemplate.flush();
+        try {
+            for (ListenableFuture<SendResult<String, String>> send : sends) {
+                send.get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while publishing outbox events", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Unable to publish outbox events", e);
+        }
+    }
+
+    // Lets the next poll retry the batch straight away instead of waiting for the claim to expire.
+    private void release(List<Row> rows) {
+        List<Object[]> ids = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            ids.add(new Object[]{row.id});
+        }
+        transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(RELEASE, ids));
+    }
+
+    private static class Row {
+        private final long id;
+        private final String aggregateId;
+        private final String eventType;
+        private final String payload;
+        private final Instant createdAt;
+        private final Timestamp claimedUntil;
+
+        Row(long id, String aggregateId, String eventType, String payload, Instant createdAt,
+            Timestamp claimedUntil) {
+            this.id = id;
+            this.aggregateId = aggregateId;
+            this.eventType = eventType;
+            this.payload = payload;
+            this.createdAt = createdAt;
+            this.claimedUntil = claimedUntil;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package datajpa.service;
+
+import datajpa.model.OutboxEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.List;
+
+// Inserts outbox rows with plain JDBC on the connection of the surrounding transaction, so they commit or roll back
+// with the write that produced them. Entity listeners run inside Hibernate's flush, where the EntityManager must not
+// be used, so the rows do not go through it.
+@Component
+public class OutboxWriter {
+    private static final String INSERT = "insert into outbox_event"
+            + " (id, aggregate_type, aggregate_id, event_type, payload, created_at)"
+            + " values (nextval('outbox_seq'), ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(OutboxEvent event) {
+        appendAll(Collections.singletonList(event));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendAll(List<OutboxEvent> events) {
+        jdbcTemplate.batchUpdate(INSERT, events, events.size(), (ps, event) -> {
+            ps.setString(1, event.getAggregateType());
+            ps.setString(2, event.getAggregateId());
+            ps.setString(3, event.getEventType());
+            ps.setString(4, event.getPayload());
+            ps.setTimestamp(5, Timestamp.from(event.getCreatedAt()));
+        });
+    }
+}
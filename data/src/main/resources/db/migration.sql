@@ -0,0 +1,13 @@
+-- Runs after Hibernate's ddl-auto update (spring.jpa.defer-datasource-initialization) and on every start, so each
+-- statement must be idempotent.
+
+-- Foo ids moved from hibernate_sequence to foo_seq (increment 50). Hibernate's pooled optimizer hands out
+-- nextval - 49 .. nextval, so the sequence is moved past max(id), rounded up to the allocation size; it never
+-- moves backwards.
+select setval('foo_seq', greatest(
+        (select (ceil(coalesce(max(id), 0) / 50.0) * 50)::bigint from foo),
+        (select last_value from foo_seq)));
+
+-- OutboxRelay reads the oldest unsent rows. Sent rows are pruned after foo.outbox.retention-ms but still make up most
+-- of the table, so the index covers only the unsent ones.
+create index if not exists outbox_event_unsent on outbox_event (id) where sent_at is null;
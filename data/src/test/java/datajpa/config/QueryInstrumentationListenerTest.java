@@ -0,0 +1,122 @@
+package datajpa.config;
+
+import datajpa.model.OutboxEvent;
+import datajpa.service.OutboxWriter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Array;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class QueryInstrumentationListenerTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private DataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        QueryInstrumentationListener listener = new QueryInstrumentationListener();
+        ReflectionTestUtils.setField(listener, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(listener, "slowQueryMs", 200L);
+        ReflectionTestUtils.setField(listener, "nPlusOneThreshold", 5);
+        ReflectionTestUtils.setField(listener, "maxStatementTags", 500);
+        dataSource = ProxyDataSourceBuilder.create(stub(DataSource.class))
+                .listener(listener)
+                .build();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        QueryCounter.reset();
+    }
+
+    @AfterEach
+    void clearCounter() {
+        QueryCounter.clear();
+    }
+
+    @Test
+    void countsABatchedOutboxAppendAsOneStatement() {
+        OutboxWriter outboxWriter = new OutboxWriter();
+        ReflectionTestUtils.setField(outboxWriter, "jdbcTemplate", jdbcTemplate);
+
+        outboxWriter.appendAll(Arrays.asList(
+                new OutboxEvent("Foo", "1", "FOO_DELETED", "{\"id\":1}"),
+                new OutboxEvent("Foo", "2", "FOO_DELETED", "{\"id\":2}")));
+
+        assertEquals(1, QueryCounter.count());
+    }
+
+    @Test
+    void tagsTimersByStatementWithInListsCollapsed() {
+        jdbcTemplate.queryForList("select f.id from foo f where f.id in (?, ?)", 1, 2);
+        jdbcTemplate.queryForList("select f.id from foo f where f.id in (?, ?, ?)", 1, 2, 3);
+        jdbcTemplate.queryForList("select f.id from foo f where f.name = 'x'");
+
+        assertEquals(2, meterRegistry.get("foo.jdbc.statement")
+                .tag("statement", "select f.id from foo f where f.id in (?)").timer().count());
+        assertEquals(1, meterRegistry.get("foo.jdbc.statement")
+                .tag("statement", "select f.id from foo f where f.name = ?").timer().count());
+        assertEquals(3, QueryCounter.count());
+    }
+
+    @Test
+    void countsARequiresNewTransactionOnItsOwn() {
+        TransactionTemplate outer = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        TransactionTemplate inner = new TransactionTemplate(outer.getTransactionManager());
+        inner.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        outer.executeWithoutResult(status -> {
+            jdbcTemplate.update("update foo set name = ? where id = ?", "a", 1);
+            inner.executeWithoutResult(nested -> {
+                for (int i = 0; i < 3; i++) {
+                    jdbcTemplate.update("insert into audit_event (event_id) values (?)", "e" + i);
+                }
+            });
+        });
+
+        DistributionSummary perTransaction = meterRegistry.get("foo.jdbc.statements.per.transaction").summary();
+        assertEquals(2, perTransaction.count());
+        assertEquals(4, perTransaction.totalAmount());
+        assertEquals(3, perTransaction.max());
+    }
+
+    // A JDBC driver that accepts every call: connections hand out statements, batches and updates succeed and
+    // queries return no rows.
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return type.getSimpleName();
+                case "getAutoCommit":
+                case "supportsBatchUpdates":
+                    return true;
+                case "executeUpdate":
+                    return 1;
+                case "executeBatch":
+                    return new int[]{1};
+                default:
+            }
+            Class<?> returnType = method.getReturnType();
+            if (returnType.isPrimitive()) {
+                return returnType == void.class ? null : Array.get(Array.newInstance(returnType, 1), 0);
+            }
+            return returnType.isInterface() ? stub(returnType) : null;
+        });
+    }
+}
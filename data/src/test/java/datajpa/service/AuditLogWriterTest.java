@@ -0,0 +1,161 @@
+package datajpa.service;
+
+import datajpa.model.AuditEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuditLogWriterTest {
+    @TempDir
+    Path spoolDir;
+
+    private final List<AuditLogWriter> started = new ArrayList<>();
+
+    @AfterEach
+    void stopWriters() throws Exception {
+        for (AuditLogWriter writer : started) {
+            writer.stop();
+        }
+    }
+
+    @Test
+    void writesEventsThatOverflowTheQueueFromTheSpoolInOrder() throws Exception {
+        CountDownLatch firstBatch = new CountDownLatch(1);
+        FakeDatabase database = new FakeDatabase(firstBatch);
+        AuditLogWriter writer = start(database, 2);
+
+        for (int i = 1; i <= 10; i++) {
+            writer.record(event("e" + i));
+        }
+        firstBatch.countDown();
+
+        await(() -> database.eventIds().size() == 10);
+        assertEquals(Arrays.asList("e1", "e2", "e3", "e4", "e5", "e6", "e7", "e8", "e9", "e10"), database.eventIds());
+        await(() -> "10".equals(checkpoint()));
+    }
+
+    @Test
+    void replaysUnwrittenEventsAfterRestart() throws Exception {
+        FakeDatabase down = new FakeDatabase(null);
+        down.failing = true;
+        AuditLogWriter writer = start(down, 100);
+        writer.record(event("e1"));
+        writer.record(event("e2"));
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), writer::stop);
+        started.remove(writer);
+        assertTrue(down.eventIds().isEmpty());
+
+        FakeDatabase up = new FakeDatabase(null);
+        start(up, 100);
+
+        await(() -> up.eventIds().size() == 2);
+        assertEquals(Arrays.asList("e1", "e2"), up.eventIds());
+        await(() -> "2".equals(checkpoint()));
+    }
+
+    @Test
+    void checkpointSkipsWrittenEventsAfterRestart() throws Exception {
+        FakeDatabase database = new FakeDatabase(null);
+        AuditLogWriter writer = start(database, 100);
+        writer.record(event("e1"));
+        writer.record(event("e2"));
+        await(() -> "2".equals(checkpoint()));
+        writer.stop();
+        started.remove(writer);
+
+        AuditLogWriter restarted = start(database, 100);
+        restarted.record(event("e3"));
+
+        await(() -> "3".equals(checkpoint()));
+        assertEquals(Arrays.asList("e1", "e2", "e3"), database.eventIds());
+    }
+
+    private AuditLogWriter start(JdbcTemplate database, int queueCapacity) throws Exception {
+        AuditLogWriter writer = new AuditLogWriter();
+        ReflectionTestUtils.setField(writer, "jdbcTemplate", database);
+        ReflectionTestUtils.setField(writer, "delivery", AuditLogWriter.Delivery.IMMEDIATE);
+        ReflectionTestUtils.setField(writer, "queueCapacity", queueCapacity);
+        ReflectionTestUtils.setField(writer, "batchSize", 3);
+        ReflectionTestUtils.setField(writer, "flushIntervalMs", 20L);
+        ReflectionTestUtils.setField(writer, "spoolDir", spoolDir.toString());
+        ReflectionTestUtils.setField(writer, "shutdownTimeoutMs", 200L);
+        writer.start();
+        started.add(writer);
+        return writer;
+    }
+
+    private String checkpoint() {
+        try {
+            Path file = spoolDir.resolve("audit.checkpoint");
+            return Files.exists(file) ? new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim() : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static AuditEvent event(String eventId) {
+        return new AuditEvent(eventId, "Foo", "1", "UPDATE", null, Instant.now());
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met within 5 s");
+            Thread.sleep(10);
+        }
+    }
+
+    private static class FakeDatabase extends JdbcTemplate {
+        private final List<String> eventIds = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch release;
+        private volatile boolean failing;
+
+        FakeDatabase(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            if (failing) {
+                throw new DataAccessResourceFailureException("database down");
+            }
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            for (Object[] row : batchArgs) {
+                eventIds.add((String) row[0]);
+            }
+            return new int[batchArgs.size()];
+        }
+
+        List<String> eventIds() {
+            synchronized (eventIds) {
+                return new ArrayList<>(eventIds);
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package datajpa.service;
+
+import datajpa.model.Foo;
+import datajpa.repository.FooStreamRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FooNameIndexTest {
+    private final FooNameIndex index = new FooNameIndex();
+
+    @Test
+    void findsIdsByFragmentIgnoringCase() {
+        index.put(1, "David", "Beach");
+        index.put(2, "Dave", "Reach");
+        index.put(3, "Anna", "Peach");
+
+        assertEquals(new HashSet<>(Arrays.asList(1, 2)), index.firstNameContaining("DAV"));
+        assertEquals(new HashSet<>(Arrays.asList(1, 2, 3)), index.lastNameContaining("each"));
+        assertEquals(Collections.singleton(1), index.firstNameContaining("vid"));
+    }
+
+    @Test
+    void findsFragmentsShorterThanATrigram() {
+        index.put(1, "David", "Beach");
+        index.put(2, "Anna", "Reach");
+
+        assertEquals(Collections.singleton(1), index.firstNameContaining("av"));
+        assertEquals(new HashSet<>(Arrays.asList(1, 2)), index.firstNameContaining(""));
+    }
+
+    @Test
+    void renameReplacesTheOldName() {
+        index.put(1, "David", "Beach");
+        index.put(1, "Martin", "Beach");
+
+        assertTrue(index.firstNameContaining("dav").isEmpty());
+        assertEquals(Collections.singleton(1), index.firstNameContaining("mart"));
+    }
+
+    @Test
+    void removeDropsTheId() {
+        index.put(1, "David", "Beach");
+        index.put(2, "David", null);
+        index.remove(1);
+
+        assertEquals(Collections.singleton(2), index.firstNameContaining("david"));
+        assertTrue(index.lastNameContaining("beach").isEmpty());
+    }
+
+    @Test
+    void combinesFirstAndLastNameMatches() {
+        index.put(1, "David", "Beach");
+        index.put(2, "David", "Stone");
+        index.put(3, "Anna", "Beach");
+
+        assertEquals(new HashSet<>(Arrays.asList(1, 2, 3)), index.eitherContaining("dav", "bea"));
+        assertEquals(Collections.singleton(1), index.bothContaining("dav", "bea"));
+        assertTrue(index.bothContaining("zzz", "bea").isEmpty());
+    }
+
+    @Test
+    void nullFragmentMatchesNothing() {
+        index.put(1, "David", "Beach");
+        index.put(2, "Anna", "Stone");
+
+        assertTrue(index.firstNameContaining(null).isEmpty());
+        assertEquals(Collections.singleton(1), index.eitherContaining("dav", null));
+        assertTrue(index.bothContaining("dav", null).isEmpty());
+    }
+
+    @Test
+    void snapshotDoesNotOverwriteChangesAppliedWhileLoading() {
+        ReflectionTestUtils.setField(index, "fooStreamRepository", new FooStreamRepository() {
+            @Override
+            public long streamAll(Consumer<Foo> consumer) {
+                index.put(1, "Martin", "Beach");
+                index.remove(2);
+                consumer.accept(foo(1, "David", "Beach"));
+                consumer.accept(foo(2, "Anna", "Stone"));
+                consumer.accept(foo(3, "Paul", "Stone"));
+                return 3;
+            }
+        });
+
+        index.load();
+
+        assertTrue(index.isWarm());
+        assertEquals(Collections.singleton(1), index.firstNameContaining("mart"));
+        assertTrue(index.firstNameContaining("anna").isEmpty());
+        assertEquals(Collections.singleton(3), index.firstNameContaining("paul"));
+    }
+
+    private static Foo foo(Integer id, String firstName, String lastName) {
+        Foo foo = new Foo();
+        foo.setId(id);
+        foo.setFirstName(firstName);
+        foo.setLastName(lastName);
+        return foo;
+    }
+}
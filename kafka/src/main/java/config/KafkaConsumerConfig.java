@@ -1,6 +1,7 @@
 package config;
 
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -9,8 +10,20 @@ import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.transaction.KafkaTransactionManager;
+import org.springframework.util.backoff.FixedBackOff;
+import serde.GreetingDeserializer;
+import serde.GreetingView;
+import service.ParallelRecordProcessor;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @EnableKafka
@@ -22,6 +35,24 @@ public class KafkaConsumerConfig {
     @Value(value = "${kafka.groupId}")
     private String groupId;
 
+    @Value(value = "${kafka.consumer.batch.maxPollRecords:500}")
+    private int maxPollRecords;
+
+    @Value(value = "${kafka.topic1.partitions:1}")
+    private int topic1Partitions;
+
+    @Value(value = "${kafka.pipeline.exactlyOnce:true}")
+    private boolean exactlyOnce;
+
+    @Value(value = "${kafka.pipeline.maxPollRecords:1000}")
+    private int pipelineMaxPollRecords;
+
+    @Value(value = "${kafka.pipeline.fetchMinBytes:65536}")
+    private int pipelineFetchMinBytes;
+
+    @Value(value = "${kafka.pipeline.fetchMaxWaitMs:100}")
+    private int pipelineFetchMaxWaitMs;
+
     @Bean
     public ConsumerFactory<String, String> consumerFactory() {
         Map<String, Object> props = new HashMap<>();
@@ -38,4 +69,104 @@ public class KafkaConsumerConfig {
         factory.setConsumerFactory(consumerFactory());
         return factory;
     }
+
+    @Bean
+    public ConsumerFactory<String, String> batchConsumerFactory() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapAddress);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        return new DefaultKafkaConsumerFactory<>(props);
+    }
+
+    // One consumer thread per partition; more would sit idle.
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> batchKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, String> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(batchConsumerFactory());
+        factory.setBatchListener(true);
+        factory.setConcurrency(topic1Partitions);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        return factory;
+    }
+
+    // Offsets are committed by ParallelRecordProcessor once records finish, not by the container.
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> parallelKafkaListenerContainerFactory(
+            ParallelRecordProcessor parallelRecordProcessor) {
+        ConcurrentKafkaListenerContainerFactory<String, String> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(batchConsumerFactory());
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setConsumerRebalanceListener(parallelRecordProcessor);
+        factory.getContainerProperties().setIdleEventInterval(1000L);
+        return factory;
+    }
+
+    @Bean
+    public ConsumerFactory<String, GreetingView> greetingConsumerFactory() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapAddress);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, GreetingDeserializer.class);
+        return new DefaultKafkaConsumerFactory<>(props);
+    }
+
+    // A payload GreetingDeserializer rejects reaches the error handler as a DeserializationException, which is
+    // not retried: its raw bytes go straight to <topic>-dlt, so one poison record cannot stall the partition. A
+    // record whose listener throws is retried twice and then dead-lettered as the GreetingView it was read as;
+    // the recoverer picks the template by value type, so both kinds can be published.
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, GreetingView> greetingKafkaListenerContainerFactory(
+            KafkaTemplate<String, byte[]> deadLetterKafkaTemplate,
+            KafkaTemplate<String, GreetingView> greetingDeadLetterKafkaTemplate) {
+        ConcurrentKafkaListenerContainerFactory<String, GreetingView> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(greetingConsumerFactory());
+        Map<Class<?>, KafkaOperations<?, ?>> templates = new LinkedHashMap<>();
+        templates.put(GreetingView.class, greetingDeadLetterKafkaTemplate);
+        templates.put(byte[].class, deadLetterKafkaTemplate);
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(templates,
+                (record, e) -> new TopicPartition(record.topic() + "-dlt", -1));
+        factory.setCommonErrorHandler(new DefaultErrorHandler(recoverer, new FixedBackOff(1000L, 2L)));
+        return factory;
+    }
+
+    // Larger polls mean fewer transactions: each poll is processed and committed as one transaction.
+    @Bean
+    public ConsumerFactory<String, String> pipelineConsumerFactory() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapAddress);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, pipelineMaxPollRecords);
+        props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, pipelineFetchMinBytes);
+        props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, pipelineFetchMaxWaitMs);
+        return new DefaultKafkaConsumerFactory<>(props);
+    }
+
+    // With a transaction manager the container begins a transaction per poll and sends the consumed offsets to
+    // it, so the output records and the offsets commit atomically. Without one, offsets are committed after the
+    // listener returns (at-least-once).
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> pipelineKafkaListenerContainerFactory(
+            KafkaTransactionManager<String, String> kafkaTransactionManager) {
+        ConcurrentKafkaListenerContainerFactory<String, String> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(pipelineConsumerFactory());
+        factory.setBatchListener(true);
+        factory.setConcurrency(topic1Partitions);
+        if (exactlyOnce) {
+            factory.getContainerProperties().setTransactionManager(kafkaTransactionManager);
+        } else {
+            factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        }
+        return factory;
+    }
 }
@@ -0,0 +1,65 @@
+package config;
+
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.StreamsConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.annotation.EnableKafkaStreams;
+import org.springframework.kafka.annotation.KafkaStreamsDefaultConfiguration;
+import org.springframework.kafka.config.KafkaStreamsConfiguration;
+import org.springframework.kafka.config.StreamsBuilderFactoryBeanConfigurer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@EnableKafkaStreams
+@Configuration
+public class KafkaStreamsConfig {
+    @Value(value = "${kafka.bootstrapAddress}")
+    private String bootstrapAddress;
+
+    @Value(value = "${kafka.streams.applicationId:topic1-aggregates}")
+    private String applicationId;
+
+    @Value(value = "${kafka.streams.stateDir:/tmp/kafka-streams}")
+    private String stateDir;
+
+    @Value(value = "${kafka.streams.host:localhost}")
+    private String host;
+
+    @Value(value = "${kafka.streams.http.port:7070}")
+    private int httpPort;
+
+    @Value(value = "${kafka.streams.commitIntervalMs:1000}")
+    private int commitIntervalMs;
+
+    @Value(value = "${kafka.streams.standbyReplicas:0}")
+    private int standbyReplicas;
+
+    @Value(value = "${kafka.topic1.mode:single}")
+    private String topic1Mode;
+
+    // Window stores are RocksDB stores under stateDir, backed by changelog topics. After a restart only the
+    // changelog tail past the local checkpoint is replayed. Standby replicas keep warm copies on other instances.
+    @Bean(name = KafkaStreamsDefaultConfiguration.DEFAULT_STREAMS_CONFIG_BEAN_NAME)
+    public KafkaStreamsConfiguration kafkaStreamsConfig() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, applicationId);
+        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapAddress);
+        props.put(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, Serdes.String().getClass());
+        props.put(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, Serdes.String().getClass());
+        props.put(StreamsConfig.STATE_DIR_CONFIG, stateDir);
+        props.put(StreamsConfig.COMMIT_INTERVAL_MS_CONFIG, commitIntervalMs);
+        props.put(StreamsConfig.NUM_STANDBY_REPLICAS_CONFIG, standbyReplicas);
+        // Lets each instance tell which one hosts a key, for interactive queries.
+        props.put(StreamsConfig.APPLICATION_SERVER_CONFIG, host + ":" + httpPort);
+        return new KafkaStreamsConfiguration(props);
+    }
+
+    // The topology reads topic1 too, so it only starts when topic1 is consumed in streams mode.
+    @Bean
+    public StreamsBuilderFactoryBeanConfigurer topic1ModeConfigurer() {
+        return factoryBean -> factoryBean.setAutoStartup("streams".equals(topic1Mode));
+    }
+}
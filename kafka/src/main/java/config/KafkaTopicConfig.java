@@ -6,6 +6,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.KafkaAdmin;
+import service.ParallelRecordProcessor;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -16,6 +17,15 @@ public class KafkaTopicConfig {
     @Value(value = "${kafka.bootstrapAddress}")
     private String bootstrapAddress;
 
+    @Value(value = "${kafka.topic1.partitions:1}")
+    private int topic1Partitions;
+
+    @Value(value = "${kafka.greetingTopicName:greeting}")
+    private String greetingTopicName;
+
+    @Value(value = "${kafka.pipeline.outputTopic:topic1-transformed}")
+    private String pipelineOutputTopic;
+
     @Bean
     public KafkaAdmin kafkaAdmin() {
         Map<String, Object> configs = new HashMap<>();
@@ -25,6 +35,22 @@ public class KafkaTopicConfig {
 
     @Bean
     public NewTopic topic1() {
-        return new NewTopic("topic1", 1, (short) 1);
+        return new NewTopic("topic1", topic1Partitions, (short) 1);
+    }
+
+    // Records whose handler failed in ParallelRecordProcessor.
+    @Bean
+    public NewTopic topic1ParallelDlt() {
+        return new NewTopic("topic1" + ParallelRecordProcessor.DLT_SUFFIX, topic1Partitions, (short) 1);
+    }
+
+    @Bean
+    public NewTopic greetingDlt() {
+        return new NewTopic(greetingTopicName + "-dlt", 1, (short) 1);
+    }
+
+    @Bean
+    public NewTopic pipelineOutputTopic() {
+        return new NewTopic(pipelineOutputTopic, topic1Partitions, (short) 1);
     }
 }
\ No newline at end of file
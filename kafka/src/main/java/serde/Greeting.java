@@ -0,0 +1,25 @@
+package serde;
+
+public class Greeting {
+    private final long timestamp;
+    private final String msg;
+    private final String name;
+
+    public Greeting(long timestamp, String msg, String name) {
+        this.timestamp = timestamp;
+        this.msg = msg;
+        this.name = name;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getMsg() {
+        return msg;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,90 @@
+package serde;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+
+// Layout, all big-endian:
+//   v1: [version u8][timestamp i64][msg]
+//   v2: [version u8][timestamp i64][msg][name]
+// where a string is [length u16][utf-8 bytes] and length 0xFFFF marks null.
+// A new version may only append fields. Readers decode the fields they know and skip the rest, so a consumer
+// accepts payloads from older and newer producers and the two can be upgraded independently.
+final class GreetingCodec {
+    static final byte CURRENT_VERSION = 2;
+    static final int TIMESTAMP_OFFSET = 1;
+    static final int MSG_OFFSET = 9;
+
+    private static final int NULL_LENGTH = 0xFFFF;
+
+    private GreetingCodec() {
+    }
+
+    static void encode(Greeting greeting, ByteBuffer buffer, CharsetEncoder encoder) {
+        buffer.put(CURRENT_VERSION);
+        buffer.putLong(greeting.getTimestamp());
+        writeString(greeting.getMsg(), buffer, encoder);
+        writeString(greeting.getName(), buffer, encoder);
+    }
+
+    static String readString(ByteBuffer buffer, int offset) {
+        int length = buffer.getShort(offset) & 0xFFFF;
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + offset + 2, length, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[length];
+        buffer.duplicate().position(offset + 2).get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Checks that the string at offset lies within the buffer, so a truncated payload fails on receipt rather
+    // than when a listener reads the field.
+    static int stringSize(ByteBuffer buffer, int offset) {
+        if (offset + 2 > buffer.limit()) {
+            throw new IllegalArgumentException("Truncated greeting: no string length at " + offset);
+        }
+        int length = buffer.getShort(offset) & 0xFFFF;
+        int size = length == NULL_LENGTH ? 2 : 2 + length;
+        if (offset + size > buffer.limit()) {
+            throw new IllegalArgumentException("Truncated greeting: string at " + offset + " needs " + size
+                    + " bytes, " + (buffer.limit() - offset) + " left");
+        }
+        return size;
+    }
+
+    private static void writeString(String value, ByteBuffer buffer, CharsetEncoder encoder) {
+        if (value == null) {
+            buffer.putShort((short) NULL_LENGTH);
+            return;
+        }
+        int lengthPosition = buffer.position();
+        buffer.position(lengthPosition + 2);
+        encoder.reset();
+        CoderResult result = encoder.encode(CharBuffer.wrap(value), buffer, true);
+        if (result.isUnderflow()) {
+            result = encoder.flush(buffer);
+        }
+        if (result.isOverflow()) {
+            throw new BufferOverflowException();
+        }
+        if (result.isError()) {
+            try {
+                result.throwException();
+            } catch (CharacterCodingException e) {
+                throw new IllegalArgumentException("Unable to encode " + value, e);
+            }
+        }
+        int length = buffer.position() - lengthPosition - 2;
+        if (length >= NULL_LENGTH) {
+            throw new IllegalArgumentException("String too long: " + length + " bytes");
+        }
+        buffer.putShort(lengthPosition, (short) length);
+    }
+}
@@ -0,0 +1,13 @@
+package serde;
+
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.nio.ByteBuffer;
+
+public class GreetingDeserializer implements Deserializer<GreetingView> {
+
+    @Override
+    public GreetingView deserialize(String topic, byte[] data) {
+        return data == null ? null : new GreetingView(ByteBuffer.wrap(data));
+    }
+}
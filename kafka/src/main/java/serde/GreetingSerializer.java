@@ -0,0 +1,35 @@
+package serde;
+
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Encodes into a per-thread scratch buffer that grows as needed; only the exact-size result is allocated.
+public class GreetingSerializer implements Serializer<Greeting> {
+    private static final int INITIAL_CAPACITY = 512;
+
+    private final ThreadLocal<ByteBuffer> scratch = ThreadLocal.withInitial(() -> ByteBuffer.allocate(INITIAL_CAPACITY));
+    private final ThreadLocal<CharsetEncoder> encoder = ThreadLocal.withInitial(StandardCharsets.UTF_8::newEncoder);
+
+    @Override
+    public byte[] serialize(String topic, Greeting greeting) {
+        if (greeting == null) {
+            return null;
+        }
+        ByteBuffer buffer = scratch.get();
+        while (true) {
+            buffer.clear();
+            try {
+                GreetingCodec.encode(greeting, buffer, encoder.get());
+                return Arrays.copyOf(buffer.array(), buffer.position());
+            } catch (BufferOverflowException e) {
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+                scratch.set(buffer);
+            }
+        }
+    }
+}
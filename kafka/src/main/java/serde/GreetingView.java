@@ -0,0 +1,70 @@
+package serde;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Decodes fields on first access straight from the received bytes; fields a listener never reads are never decoded.
+// The layout is checked up front, so a corrupt payload fails in the deserializer.
+public class GreetingView {
+    private final ByteBuffer buffer;
+    private final int version;
+    private final int nameOffset;
+    private String msg;
+    private String name;
+
+    GreetingView(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.limit() < GreetingCodec.MSG_OFFSET) {
+            throw new IllegalArgumentException("Truncated greeting: " + buffer.limit() + " bytes");
+        }
+        this.version = buffer.get(0) & 0xFF;
+        if (version < 1) {
+            throw new IllegalArgumentException("Unsupported greeting schema version " + version);
+        }
+        int end = GreetingCodec.MSG_OFFSET + GreetingCodec.stringSize(buffer, GreetingCodec.MSG_OFFSET);
+        if (version >= 2) {
+            nameOffset = end;
+            GreetingCodec.stringSize(buffer, nameOffset);
+        } else {
+            nameOffset = -1;
+        }
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public long getTimestamp() {
+        return buffer.getLong(GreetingCodec.TIMESTAMP_OFFSET);
+    }
+
+    public String getMsg() {
+        if (msg == null) {
+            msg = GreetingCodec.readString(buffer, GreetingCodec.MSG_OFFSET);
+        }
+        return msg;
+    }
+
+    public String getName() {
+        if (nameOffset < 0) {
+            return null;
+        }
+        if (name == null) {
+            name = GreetingCodec.readString(buffer, nameOffset);
+        }
+        return name;
+    }
+
+    // The bytes as received, including fields this reader does not know, so forwarding a record loses nothing.
+    byte[] bytes() {
+        byte[] array = buffer.array();
+        if (buffer.arrayOffset() == 0 && buffer.limit() == array.length) {
+            return array;
+        }
+        return Arrays.copyOfRange(array, buffer.arrayOffset(), buffer.arrayOffset() + buffer.limit());
+    }
+
+    public Greeting toGreeting() {
+        return new Greeting(getTimestamp(), getMsg(), getName());
+    }
+}
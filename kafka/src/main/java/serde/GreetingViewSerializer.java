@@ -0,0 +1,12 @@
+package serde;
+
+import org.apache.kafka.common.serialization.Serializer;
+
+// Writes a received greeting back out unchanged, e.g. when a listener failure sends it to a dead-letter topic.
+public class GreetingViewSerializer implements Serializer<GreetingView> {
+
+    @Override
+    public byte[] serialize(String topic, GreetingView greeting) {
+        return greeting == null ? null : greeting.bytes();
+    }
+}
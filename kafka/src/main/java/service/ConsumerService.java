@@ -1,27 +1,86 @@
 package service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.annotation.DltHandler;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.annotation.PartitionOffset;
+import org.springframework.kafka.annotation.RetryableTopic;
 import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
 import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.retry.annotation.Backoff;
 import org.springframework.stereotype.Service;
+import serde.GreetingView;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 @Service
 public class ConsumerService {
-    @KafkaListener(topics = "topic1, topic2", groupId = "foo")
-    public void listenGroupFoo(String message) {
-        System.out.println("Received Message in group foo: " + message);
+    // topic1 is consumed in exactly one mode, chosen by kafka.topic1.mode: single, batch, parallel, pipeline or
+    // streams. The containers of the other modes are not started, so each record is processed once.
+    public static final String TOPIC1_MODE = "'${kafka.topic1.mode:single}'";
+
+    private static final Log logger = LogFactory.getLog(ConsumerService.class);
+
+    @Autowired
+    private ParallelRecordProcessor parallelRecordProcessor;
+
+    private Timer batchProcessing;
+    private DistributionSummary batchSize;
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        batchProcessing = Timer.builder("kafka.consumer.batch.processing")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        batchSize = meterRegistry.summary("kafka.consumer.batch.size");
+    }
+
+    // A failing record is moved to <topic>-retry-0, -retry-1, ... with growing delays and finally to <topic>-dlt,
+    // so the main partition keeps flowing. The suffix of the received topic tells which tier a record is on.
+    @RetryableTopic(
+            attempts = "${kafka.consumer.retry.attempts:4}",
+            backoff = @Backoff(delayExpression = "${kafka.consumer.retry.delayMs:1000}",
+                    multiplierExpression = "${kafka.consumer.retry.multiplier:2.0}",
+                    maxDelayExpression = "${kafka.consumer.retry.maxDelayMs:60000}"),
+            numPartitions = "${kafka.topic1.partitions:1}",
+            kafkaTemplate = "kafkaTemplate",
+            topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE)
+    @KafkaListener(topics = {"topic1", "topic2"}, groupId = "foo", autoStartup = "#{" + TOPIC1_MODE + " == 'single'}")
+    public void listenGroupFoo(String message, @Header(KafkaHeaders.RECEIVED_TOPIC) String topic) {
+        process(topic, message);
     }
 
+    @RetryableTopic(
+            attempts = "${kafka.consumer.retry.attempts:4}",
+            backoff = @Backoff(delayExpression = "${kafka.consumer.retry.delayMs:1000}",
+                    multiplierExpression = "${kafka.consumer.retry.multiplier:2.0}",
+                    maxDelayExpression = "${kafka.consumer.retry.maxDelayMs:60000}"),
+            kafkaTemplate = "kafkaTemplate",
+            topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE)
     @KafkaListener(topics = "topicName")
     public void listenWithHeaders(
             @Payload String message,
-            @Header(KafkaHeaders.RECEIVED_PARTITION_ID) int partition) {
-        System.out.println(
-                "Received Message: " + message
-                        + "from partition: " + partition);
+            @Header(KafkaHeaders.RECEIVED_PARTITION_ID) int partition,
+            @Header(KafkaHeaders.RECEIVED_TOPIC) String topic) {
+        tier(topic).increment();
+        if (logger.isDebugEnabled()) {
+            logger.debug("Received Message: " + message + " from partition: " + partition);
+        }
     }
 
     @KafkaListener(
@@ -33,8 +92,55 @@ public class ConsumerService {
     public void listenToPartition(
             @Payload String message,
             @Header(KafkaHeaders.RECEIVED_PARTITION_ID) int partition) {
-        System.out.println(
-                "Received Message: " + message
-                        + "from partition: " + partition);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Received Message: " + message + " from partition: " + partition);
+        }
+    }
+
+    @KafkaListener(topics = "topic1", groupId = "foo-batch", containerFactory = "batchKafkaListenerContainerFactory",
+            autoStartup = "#{" + TOPIC1_MODE + " == 'batch'}")
+    public void listenBatch(List<ConsumerRecord<String, String>> records) {
+        batchSize.record(records.size());
+        batchProcessing.record(() -> records.forEach(this::process));
+    }
+
+    @KafkaListener(id = ParallelRecordProcessor.LISTENER_ID, topics = "topic1", groupId = "foo-parallel",
+            containerFactory = "parallelKafkaListenerContainerFactory",
+            autoStartup = "#{" + TOPIC1_MODE + " == 'parallel'}")
+    public void listenParallel(List<ConsumerRecord<String, String>> records, Consumer<?, ?> consumer) {
+        parallelRecordProcessor.submit(records, consumer, this::process);
+    }
+
+    @KafkaListener(topics = "${kafka.greetingTopicName:greeting}", containerFactory = "greetingKafkaListenerContainerFactory")
+    public void listenGreeting(GreetingView greeting) {
+        logger.info("Received greeting: " + greeting.getMsg());
+    }
+
+    // Shared by every @RetryableTopic listener in this class. DltReplayService puts these records back.
+    @DltHandler
+    public void listenDlt(
+            @Payload String message,
+            @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
+            @Header(KafkaHeaders.DLT_ORIGINAL_TOPIC) byte[] originalTopic,
+            @Header(KafkaHeaders.DLT_ORIGINAL_OFFSET) byte[] originalOffset) {
+        tier(topic).increment();
+        logger.warn("Dead-lettered message from " + new String(originalTopic, StandardCharsets.UTF_8)
+                + " at offset " + ByteBuffer.wrap(originalOffset).getLong() + ": " + message);
+    }
+
+    private Counter tier(String topic) {
+        return meterRegistry.counter("kafka.consumer.retry.tier", "topic", topic);
+    }
+
+    private void process(ConsumerRecord<String, String> record) {
+        process(record.topic(), record.value());
+    }
+
+    // The per-record work of every topic1 mode, so the modes can be compared.
+    private void process(String topic, String message) {
+        tier(topic).increment();
+        if (logger.isDebugEnabled()) {
+            logger.debug("Received Message from " + topic + ": " + message);
+        }
     }
 }
@@ -0,0 +1,140 @@
+package service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Service;
+import org.springframework.util.concurrent.ListenableFuture;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+
+// Republishes dead-lettered records to the first retry topic of the topic they originally failed on. Only the
+// group of the @RetryableTopic listener that failed consumes that topic, so other groups on the original topic do
+// not see the record twice. The replay stops at the end offsets captured when it starts, and progress is committed
+// under its own group after each poll has been acknowledged by the broker, so an interrupted replay resumes where
+// it stopped.
+@Service
+public class DltReplayService {
+    private static final String REPLAY_GROUP = "dlt-replay";
+
+    @Autowired
+    private ConsumerFactory<String, String> consumerFactory;
+
+    @Autowired
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value(value = "${kafka.consumer.retry.replayPollMs:1000}")
+    private long pollMs;
+
+    @Value(value = "${kafka.consumer.retry.replaySuffix:-retry-0}")
+    private String replaySuffix;
+
+    public long replay(String dltTopic) throws InterruptedException, ExecutionException {
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        long replayed = 0;
+        try (Consumer<String, String> consumer = consumerFactory.createConsumer(REPLAY_GROUP, null, null, overrides)) {
+            List<TopicPartition> partitions = new ArrayList<>();
+            for (PartitionInfo info : consumer.partitionsFor(dltTopic)) {
+                partitions.add(new TopicPartition(info.topic(), info.partition()));
+            }
+            consumer.assign(partitions);
+            Map<TopicPartition, OffsetAndMetadata> committed = consumer.committed(new HashSet<>(partitions));
+            for (TopicPartition partition : partitions) {
+                OffsetAndMetadata offset = committed.get(partition);
+                if (offset == null) {
+                    consumer.seekToBeginning(Collections.singleton(partition));
+                } else {
+                    consumer.seek(partition, offset.offset());
+                }
+            }
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+            while (!reachedEnd(consumer, endOffsets)) {
+                ConsumerRecords<String, String> records = consumer.poll(Duration.ofMillis(pollMs));
+                List<ListenableFuture<SendResult<String, String>>> sends = new ArrayList<>(records.count());
+                for (ConsumerRecord<String, String> record : records) {
+                    TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+                    if (record.offset() < endOffsets.get(partition)) {
+                        sends.add(kafkaTemplate.send(toRetry(record)));
+                    }
+                }
+                kafkaTemplate.flush();
+                for (ListenableFuture<SendResult<String, String>> send : sends) {
+                    String topic = send.get().getRecordMetadata().topic();
+                    meterRegistry.counter("kafka.consumer.dlt.replayed", "topic", topic).increment();
+                }
+                consumer.commitSync(progress(consumer, endOffsets));
+                replayed += sends.size();
+            }
+        }
+        return replayed;
+    }
+
+    // Partitions that are done are paused, so records dead-lettered during the replay are not fetched.
+    private static boolean reachedEnd(Consumer<?, ?> consumer, Map<TopicPartition, Long> endOffsets) {
+        boolean reached = true;
+        for (Map.Entry<TopicPartition, Long> end : endOffsets.entrySet()) {
+            if (consumer.position(end.getKey()) < end.getValue()) {
+                reached = false;
+            } else {
+                consumer.pause(Collections.singleton(end.getKey()));
+            }
+        }
+        return reached;
+    }
+
+    private static Map<TopicPartition, OffsetAndMetadata> progress(Consumer<?, ?> consumer,
+                                                                    Map<TopicPartition, Long> endOffsets) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        for (Map.Entry<TopicPartition, Long> end : endOffsets.entrySet()) {
+            long position = Math.min(consumer.position(end.getKey()), end.getValue());
+            offsets.put(end.getKey(), new OffsetAndMetadata(position));
+        }
+        return offsets;
+    }
+
+    // Dead-letter and retry headers are dropped so the record starts over with a full set of attempts. Each hop
+    // through a retry topic appends another original-topic header; the first one names the topic it failed on.
+    private ProducerRecord<String, String> toRetry(ConsumerRecord<String, String> record) {
+        Iterator<Header> originalTopics = record.headers().headers(KafkaHeaders.DLT_ORIGINAL_TOPIC).iterator();
+        if (!originalTopics.hasNext()) {
+            throw new IllegalStateException("Record " + record.topic() + "-" + record.partition() + "@"
+                    + record.offset() + " has no " + KafkaHeaders.DLT_ORIGINAL_TOPIC + " header");
+        }
+        String originalTopic = new String(originalTopics.next().value(), StandardCharsets.UTF_8);
+        RecordHeaders headers = new RecordHeaders();
+        for (Header header : record.headers()) {
+            if (!header.key().startsWith("kafka_dlt-") && !header.key().startsWith("retry_topic-")) {
+                headers.add(header);
+            }
+        }
+        return new ProducerRecord<>(originalTopic + replaySuffix, null, record.key(), record.value(), headers);
+    }
+}
@@ -0,0 +1,323 @@
+package service;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.event.ListenerContainerIdleEvent;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Fans records out to single-threaded lanes chosen by key, so records with the same key keep their order while
+// different keys run in parallel. Only offsets below the lowest unfinished record of a partition are committed.
+// A record whose handler throws is published to <topic>-parallel-dlt before its offset counts as finished. If
+// that publish still fails after kafka.consumer.parallel.dltAttempts tries, the offset is held and the container
+// is stopped, so the record is redelivered on restart instead of stalling the partition's commits unnoticed.
+@Component
+public class ParallelRecordProcessor implements ConsumerAwareRebalanceListener, DisposableBean {
+    public static final String LISTENER_ID = "parallel";
+    public static final String DLT_SUFFIX = "-parallel-dlt";
+
+    private static final Log logger = LogFactory.getLog(ParallelRecordProcessor.class);
+
+    private final ExecutorService[] lanes;
+    private final int maxInFlight;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicBoolean paused = new AtomicBoolean();
+    private final long revokeTimeoutMs;
+    private final int dltAttempts;
+    private final long dltBackoffMs;
+    private final Map<TopicPartition, OffsetTracker> trackers = new ConcurrentHashMap<>();
+    private DeadLetterPublishingRecoverer deadLetters;
+
+    @Autowired
+    private PartitionFlowControl flowControl;
+
+    @Autowired
+    private KafkaListenerEndpointRegistry registry;
+
+    public ParallelRecordProcessor(@Value("${kafka.consumer.parallel.workers:8}") int workers,
+                                   @Value("${kafka.consumer.parallel.maxInFlight:1000}") int maxInFlight,
+                                   @Value("${kafka.consumer.parallel.revokeTimeoutMs:10000}") long revokeTimeoutMs,
+                                   @Value("${kafka.consumer.parallel.dltAttempts:3}") int dltAttempts,
+                                   @Value("${kafka.consumer.parallel.dltBackoffMs:1000}") long dltBackoffMs) {
+        lanes = new ExecutorService[workers];
+        for (int i = 0; i < workers; i++) {
+            lanes[i] = Executors.newSingleThreadExecutor();
+        }
+        this.maxInFlight = maxInFlight;
+        this.revokeTimeoutMs = revokeTimeoutMs;
+        this.dltAttempts = Math.max(1, dltAttempts);
+        this.dltBackoffMs = dltBackoffMs;
+    }
+
+    @Autowired
+    public void setKafkaTemplate(KafkaTemplate<String, String> kafkaTemplate) {
+        deadLetters = new DeadLetterPublishingRecoverer(kafkaTemplate,
+                (record, e) -> new TopicPartition(record.topic() + DLT_SUFFIX, -1));
+    }
+
+    // Called on the consumer thread and never blocks it. Once maxInFlight records are unfinished the rest of the
+    // poll is rewound and the container paused; it keeps polling, so the group does not rebalance, and resumes
+    // when half of them have finished.
+    public void submit(List<ConsumerRecord<String, String>> records, Consumer<?, ?> consumer,
+                       java.util.function.Consumer<ConsumerRecord<String, String>> handler) {
+        for (int i = 0; i < records.size(); i++) {
+            if (inFlight.get() >= maxInFlight) {
+                rewind(consumer, records.subList(i, records.size()));
+                break;
+            }
+            ConsumerRecord<String, String> record = records.get(i);
+            inFlight.incrementAndGet();
+            TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+            OffsetTracker tracker = trackers.computeIfAbsent(partition, tp -> new OffsetTracker());
+            tracker.started(record.offset());
+            int epoch = flowControl.started(LISTENER_ID, partition);
+            lane(record).execute(() -> {
+                // Queued behind a revoke: the new owner of the partition redelivers the record.
+                if (tracker.isRevoked()) {
+                    inFlight.decrementAndGet();
+                    resumeIfDrained();
+                    return;
+                }
+                long start = System.nanoTime();
+                boolean finished = true;
+                try {
+                    handler.accept(record);
+                } catch (RuntimeException e) {
+                    finished = deadLetter(record, e);
+                } finally {
+                    if (finished) {
+                        tracker.completed(record.offset());
+                    } else {
+                        tracker.failed(record.offset());
+                    }
+                    flowControl.completed(LISTENER_ID, partition, epoch, System.nanoTime() - start);
+                    inFlight.decrementAndGet();
+                    resumeIfDrained();
+                }
+            });
+        }
+        pauseIfFull();
+        for (TopicPartition partition : consumer.assignment()) {
+            consumer.currentLag(partition).ifPresent(lag -> flowControl.lag(partition, lag));
+        }
+        commit(consumer, consumer.assignment());
+    }
+
+    // Idle events are published on the consumer thread, so completions are committed even without new records.
+    @EventListener
+    public void onIdle(ListenerContainerIdleEvent event) {
+        if (event.getListenerId().startsWith(LISTENER_ID) && event.getConsumer() != null) {
+            commit(event.getConsumer(), event.getConsumer().assignment());
+            resumeIfDrained();
+        }
+    }
+
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        long deadline = System.currentTimeMillis() + revokeTimeoutMs;
+        for (TopicPartition partition : partitions) {
+            OffsetTracker tracker = trackers.get(partition);
+            if (tracker != null) {
+                tracker.awaitDrained(deadline);
+            }
+        }
+        // Records still queued after the wait must not run once the partition may belong to someone else.
+        for (TopicPartition partition : partitions) {
+            OffsetTracker tracker = trackers.get(partition);
+            if (tracker != null) {
+                tracker.revoke();
+            }
+        }
+        Map<TopicPartition, OffsetAndMetadata> offsets = committable(partitions);
+        if (!offsets.isEmpty()) {
+            consumer.commitSync(offsets);
+        }
+        for (TopicPartition partition : partitions) {
+            trackers.remove(partition);
+            flowControl.revoked(LISTENER_ID, partition);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+    }
+
+    private boolean deadLetter(ConsumerRecord<String, String> record, RuntimeException failure) {
+        String coordinates = record.topic() + "-" + record.partition() + "@" + record.offset();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                deadLetters.accept(record, failure);
+                logger.error("Failed to process record " + coordinates + ", sent to " + record.topic() + DLT_SUFFIX,
+                        failure);
+                return true;
+            } catch (RuntimeException e) {
+                if (attempt >= dltAttempts || !sleep(dltBackoffMs)) {
+                    logger.error("Failed to process record " + coordinates + " and to dead-letter it after " + attempt
+                            + " attempts; stopping the container so it is redelivered on restart", e);
+                    stopContainer();
+                    return false;
+                }
+            }
+        }
+    }
+
+    // Runs on a lane, so it must not wait for the consumer thread, which may be waiting for this lane to drain.
+    private void stopContainer() {
+        MessageListenerContainer container = registry.getListenerContainer(LISTENER_ID);
+        if (container != null && container.isRunning()) {
+            container.stop(() -> { });
+        }
+    }
+
+    private static boolean sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // Seeks each partition back to its first record that was not dispatched, so the next poll returns it again.
+    private static void rewind(Consumer<?, ?> consumer, List<ConsumerRecord<String, String>> undispatched) {
+        Map<TopicPartition, Long> positions = new HashMap<>();
+        for (ConsumerRecord<String, String> record : undispatched) {
+            positions.putIfAbsent(new TopicPartition(record.topic(), record.partition()), record.offset());
+        }
+        positions.forEach(consumer::seek);
+    }
+
+    // The re-check after pausing covers lanes that drained between the first check and the pause.
+    private void pauseIfFull() {
+        if (inFlight.get() >= maxInFlight && paused.compareAndSet(false, true)) {
+            MessageListenerContainer container = registry.getListenerContainer(LISTENER_ID);
+            if (container != null) {
+                container.pause();
+            }
+            resumeIfDrained();
+        }
+    }
+
+    private void resumeIfDrained() {
+        if (inFlight.get() <= maxInFlight / 2 && paused.compareAndSet(true, false)) {
+            MessageListenerContainer container = registry.getListenerContainer(LISTENER_ID);
+            if (container != null) {
+                container.resume();
+            }
+        }
+    }
+
+    private ExecutorService lane(ConsumerRecord<String, String> record) {
+        int hash = record.key() == null ? record.partition() : record.key().hashCode();
+        return lanes[Math.floorMod(hash, lanes.length)];
+    }
+
+    private void commit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = committable(partitions);
+        if (!offsets.isEmpty()) {
+            consumer.commitAsync(offsets, null);
+        }
+    }
+
+    private Map<TopicPartition, OffsetAndMetadata> committable(Collection<TopicPartition> partitions) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        for (TopicPartition partition : partitions) {
+            OffsetTracker tracker = trackers.get(partition);
+            if (tracker != null) {
+                long offset = tracker.nextCommit();
+                if (offset >= 0) {
+                    offsets.put(partition, new OffsetAndMetadata(offset));
+                }
+            }
+        }
+        return offsets;
+    }
+
+    // Offsets that have not finished hold the commit position; running counts those a lane is still working on.
+    static class OffsetTracker {
+        private final TreeSet<Long> pending = new TreeSet<>();
+        private long highestStarted = -1;
+        private long committed = -1;
+        private int running;
+        private volatile boolean revoked;
+
+        synchronized void started(long offset) {
+            pending.add(offset);
+            running++;
+            highestStarted = Math.max(highestStarted, offset);
+        }
+
+        synchronized void completed(long offset) {
+            pending.remove(offset);
+            finished();
+        }
+
+        // A failed record stays pending, so nothing at or after its offset is committed.
+        synchronized void failed(long offset) {
+            finished();
+        }
+
+        private void finished() {
+            if (--running == 0) {
+                notifyAll();
+            }
+        }
+
+        // The next offset to commit, or -1 if nothing new has completed contiguously.
+        synchronized long nextCommit() {
+            long next = pending.isEmpty() ? highestStarted + 1 : pending.first();
+            if (next <= committed || next <= 0) {
+                return -1;
+            }
+            committed = next;
+            return next;
+        }
+
+        void revoke() {
+            revoked = true;
+        }
+
+        boolean isRevoked() {
+            return revoked;
+        }
+
+        synchronized void awaitDrained(long deadline) {
+            long remaining;
+            while (running > 0 && (remaining = deadline - System.currentTimeMillis()) > 0) {
+                try {
+                    wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Pauses fetching for a partition when its unfinished records pile up or its handlers slow down, and resumes it
+// once the backlog has drained. The consumer keeps polling while paused, so the group does not rebalance.
+@Component
+public class PartitionFlowControl {
+    @Autowired
+    private KafkaListenerEndpointRegistry registry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value(value = "${kafka.consumer.flow.pauseDepth:500}")
+    private int pauseDepth;
+
+    @Value(value = "${kafka.consumer.flow.resumeDepth:100}")
+    private int resumeDepth;
+
+    @Value(value = "${kafka.consumer.flow.maxLatencyMs:1000}")
+    private double maxLatencyMs;
+
+    private final Map<TopicPartition, PartitionState> states = new ConcurrentHashMap<>();
+
+    // Returns the assignment epoch the record belongs to; hand it back to completed().
+    public int started(String listenerId, TopicPartition partition) {
+        PartitionState state = state(partition);
+        int epoch;
+        int depth;
+        synchronized (state) {
+            epoch = state.epoch;
+            depth = state.depth.incrementAndGet();
+        }
+        if (depth >= pauseDepth) {
+            pause(listenerId, partition, state);
+        }
+        return epoch;
+    }
+
+    // Completions from before the last revoke are ignored: revoked() already reset the depth they would decrement.
+    public void completed(String listenerId, TopicPartition partition, int epoch, long nanos) {
+        PartitionState state = state(partition);
+        int depth;
+        synchronized (state) {
+            if (epoch != state.epoch) {
+                return;
+            }
+            depth = state.depth.decrementAndGet();
+        }
+        double latencyMs = TimeUnit.NANOSECONDS.toMicros(nanos) / 1000.0;
+        state.latencyMs = state.latencyMs * 0.9 + latencyMs * 0.1;
+        if (state.latencyMs > maxLatencyMs && depth > resumeDepth) {
+            pause(listenerId, partition, state);
+        } else if (depth <= resumeDepth) {
+            resume(listenerId, partition, state);
+        }
+    }
+
+    public void lag(TopicPartition partition, long lag) {
+        state(partition).lag.set(lag);
+    }
+
+    public void revoked(String listenerId, TopicPartition partition) {
+        PartitionState state = states.get(partition);
+        if (state != null) {
+            synchronized (state) {
+                state.epoch++;
+                state.depth.set(0);
+            }
+            resume(listenerId, partition, state);
+        }
+    }
+
+    private void pause(String listenerId, TopicPartition partition, PartitionState state) {
+        MessageListenerContainer container = registry.getListenerContainer(listenerId);
+        synchronized (state) {
+            if (container != null && !state.paused) {
+                state.paused = true;
+                container.pausePartition(partition);
+            }
+        }
+    }
+
+    private void resume(String listenerId, TopicPartition partition, PartitionState state) {
+        MessageListenerContainer container = registry.getListenerContainer(listenerId);
+        synchronized (state) {
+            if (container != null && state.paused) {
+                state.paused = false;
+                container.resumePartition(partition);
+            }
+        }
+    }
+
+    private PartitionState state(TopicPartition partition) {
+        return states.computeIfAbsent(partition, tp -> {
+            PartitionState state = new PartitionState();
+            Tags tags = Tags.of("topic", tp.topic(), "partition", Integer.toString(tp.partition()));
+            Gauge.builder("kafka.consumer.partition.depth", state.depth, AtomicInteger::get).tags(tags).register(meterRegistry);
+            Gauge.builder("kafka.consumer.partition.latency", state, s -> s.latencyMs).tags(tags)
+                    .baseUnit("milliseconds").register(meterRegistry);
+            Gauge.builder("kafka.consumer.partition.paused", state, s -> s.paused ? 1 : 0).tags(tags).register(meterRegistry);
+            Gauge.builder("kafka.consumer.partition.lag", state.lag, AtomicLong::get).tags(tags).register(meterRegistry);
+            return state;
+        });
+    }
+
+    private static class PartitionState {
+        private final AtomicInteger depth = new AtomicInteger();
+        private final AtomicLong lag = new AtomicLong();
+        private volatile double latencyMs;
+        private volatile boolean paused;
+        private int epoch;
+    }
+}
@@ -1,5 +1,9 @@
 package service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
@@ -7,9 +11,14 @@ import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 import org.springframework.util.concurrent.ListenableFuture;
 import org.springframework.util.concurrent.ListenableFutureCallback;
+import serde.Greeting;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class ProducerService {
+    private static final Log logger = LogFactory.getLog(ProducerService.class);
 
     @Value(value = "${kafka.topicName}")
     private String topicName;
@@ -17,20 +26,64 @@ public class ProducerService {
     @Autowired
     private KafkaTemplate<String, String> kafkaTemplate;
 
+    @Autowired
+    private KafkaTemplate<String, String> throughputKafkaTemplate;
+
+    @Value(value = "${kafka.greetingTopicName:greeting}")
+    private String greetingTopicName;
+
+    @Autowired
+    private KafkaTemplate<String, Greeting> greetingKafkaTemplate;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private Timer sendLatency;
+    private Timer sendFailureLatency;
+
+    @Autowired
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        meterRegistry.gauge("kafka.producer.in.flight", inFlight);
+        sendLatency = Timer.builder("kafka.producer.send.latency")
+                .tag("result", "success")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        sendFailureLatency = Timer.builder("kafka.producer.send.latency")
+                .tag("result", "failure")
+                .register(meterRegistry);
+    }
+
     public void sendMessage(String message) {
         ListenableFuture<SendResult<String, String>> future = kafkaTemplate.send(topicName, message);
 
         future.addCallback(new ListenableFutureCallback<>() {
             @Override
             public void onSuccess(SendResult<String, String> result) {
-                System.out.println("Sent message=[" + message +
-                        "] with offset=[" + result.getRecordMetadata().offset() + "]");
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Sent message=[" + message
+                            + "] with offset=[" + result.getRecordMetadata().offset() + "]");
+                }
             }
             @Override
             public void onFailure(Throwable ex) {
-                System.out.println("Unable to send message=["
-                        + message + "] due to : " + ex.getMessage());
+                logger.warn("Unable to send message=[" + message + "] due to : " + ex.getMessage());
             }
         });
     }
+
+    public void sendMessageFast(String message) {
+        long start = System.nanoTime();
+        inFlight.incrementAndGet();
+        throughputKafkaTemplate.send(topicName, message).addCallback(
+                result -> {
+                    inFlight.decrementAndGet();
+                    sendLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                },
+                ex -> {
+                    inFlight.decrementAndGet();
+                    sendFailureLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                });
+    }
+
+    public void sendGreeting(Greeting greeting) {
+        greetingKafkaTemplate.send(greetingTopicName, greeting.getName(), greeting);
+    }
 }
@@ -0,0 +1,74 @@
+package service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Service;
+import org.springframework.util.concurrent.ListenableFuture;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+// Reads topic1, transforms each record and writes it to kafka.pipeline.outputTopic. In exactly-once mode the
+// sends join the transaction the container opened for the poll; in at-least-once mode they are acknowledged
+// before the container commits the offsets. Both modes export kafka.pipeline.* tagged by mode for comparison.
+@Service
+public class TransformPipeline {
+    @Value(value = "${kafka.pipeline.outputTopic:topic1-transformed}")
+    private String outputTopic;
+
+    @Value(value = "${kafka.pipeline.exactlyOnce:true}")
+    private boolean exactlyOnce;
+
+    @Autowired
+    private KafkaTemplate<String, String> transactionalKafkaTemplate;
+
+    @Autowired
+    private KafkaTemplate<String, String> throughputKafkaTemplate;
+
+    private Counter records;
+    private Timer batchProcessing;
+
+    @Autowired
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        String mode = exactlyOnce ? "exactly-once" : "at-least-once";
+        records = meterRegistry.counter("kafka.pipeline.records", "mode", mode);
+        batchProcessing = Timer.builder("kafka.pipeline.batch")
+                .tag("mode", mode)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    @KafkaListener(topics = "topic1", groupId = "foo-pipeline", containerFactory = "pipelineKafkaListenerContainerFactory",
+            autoStartup = "#{" + ConsumerService.TOPIC1_MODE + " == 'pipeline'}")
+    public void transform(List<ConsumerRecord<String, String>> batch) throws InterruptedException, ExecutionException {
+        long start = System.nanoTime();
+        KafkaTemplate<String, String> template = exactlyOnce ? transactionalKafkaTemplate : throughputKafkaTemplate;
+        List<ListenableFuture<SendResult<String, String>>> sends = new ArrayList<>(batch.size());
+        for (ConsumerRecord<String, String> record : batch) {
+            sends.add(template.send(outputTopic, record.key(), transform(record.value())));
+        }
+        // The transaction commit flushes and fails the whole batch on error, so only at-least-once has to wait.
+        if (!exactlyOnce) {
+            template.flush();
+            for (ListenableFuture<SendResult<String, String>> send : sends) {
+                send.get();
+            }
+        }
+        records.increment(batch.size());
+        batchProcessing.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private String transform(String value) {
+        return value == null ? null : value.toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,124 @@
+package service;
+
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.KeyQueryMetadata;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StoreQueryParameters;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.KGroupedStream;
+import org.apache.kafka.streams.kstream.Materialized;
+import org.apache.kafka.streams.kstream.TimeWindows;
+import org.apache.kafka.streams.state.HostInfo;
+import org.apache.kafka.streams.state.QueryableStoreTypes;
+import org.apache.kafka.streams.state.ReadOnlyWindowStore;
+import org.apache.kafka.streams.state.WindowStore;
+import org.apache.kafka.streams.state.WindowStoreIterator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+// Counts topic1 records per key in tumbling and hopping windows. Counts are updated as records arrive, kept in
+// local window stores and read back through interactive queries. Records without a key are not counted.
+@Component
+public class WindowedCounts {
+    public static final String TUMBLING_STORE = "topic1-tumbling-counts";
+    public static final String HOPPING_STORE = "topic1-hopping-counts";
+
+    @Value(value = "${kafka.streams.tumbling.sizeMs:60000}")
+    private long tumblingSizeMs;
+
+    @Value(value = "${kafka.streams.hopping.sizeMs:300000}")
+    private long hoppingSizeMs;
+
+    @Value(value = "${kafka.streams.hopping.advanceMs:60000}")
+    private long hoppingAdvanceMs;
+
+    @Value(value = "${kafka.streams.graceMs:10000}")
+    private long graceMs;
+
+    @Value(value = "${kafka.streams.retentionMs:86400000}")
+    private long retentionMs;
+
+    @Autowired
+    private StreamsBuilderFactoryBean streamsBuilderFactoryBean;
+
+    @Autowired
+    public void buildPipeline(StreamsBuilder streamsBuilder) {
+        KGroupedStream<String, String> byKey = streamsBuilder
+                .stream("topic1", Consumed.with(Serdes.String(), Serdes.String()))
+                .groupByKey();
+        byKey.windowedBy(TimeWindows.ofSizeAndGrace(Duration.ofMillis(tumblingSizeMs), Duration.ofMillis(graceMs)))
+                .count(Materialized.<String, Long, WindowStore<Bytes, byte[]>>as(TUMBLING_STORE)
+                        .withRetention(Duration.ofMillis(retentionMs)));
+        byKey.windowedBy(TimeWindows.ofSizeAndGrace(Duration.ofMillis(hoppingSizeMs), Duration.ofMillis(graceMs))
+                        .advanceBy(Duration.ofMillis(hoppingAdvanceMs)))
+                .count(Materialized.<String, Long, WindowStore<Bytes, byte[]>>as(HOPPING_STORE)
+                        .withRetention(Duration.ofMillis(retentionMs)));
+    }
+
+    // Only the instance hosting the key's partition can answer; null while the group is rebalancing.
+    public HostInfo owner(String store, String key) {
+        KeyQueryMetadata metadata = streams().queryMetadataForKey(store, key, Serdes.String().serializer());
+        return metadata == null || KeyQueryMetadata.NOT_AVAILABLE.equals(metadata) ? null : metadata.activeHost();
+    }
+
+    // Throws InvalidStateStoreException while the store is migrating or being restored from its changelog.
+    public List<WindowCount> fetch(String store, String key, Instant from, Instant to) {
+        long size = TUMBLING_STORE.equals(store) ? tumblingSizeMs : hoppingSizeMs;
+        ReadOnlyWindowStore<String, Long> windows = streams().store(
+                StoreQueryParameters.fromNameAndType(store, QueryableStoreTypes.windowStore()));
+        List<WindowCount> counts = new ArrayList<>();
+        try (WindowStoreIterator<Long> iterator = windows.fetch(key, from, to)) {
+            while (iterator.hasNext()) {
+                KeyValue<Long, Long> window = iterator.next();
+                counts.add(new WindowCount(window.key, window.key + size, window.value));
+            }
+        }
+        return counts;
+    }
+
+    private KafkaStreams streams() {
+        KafkaStreams streams = streamsBuilderFactoryBean.getKafkaStreams();
+        if (streams == null) {
+            throw new IllegalStateException("Kafka Streams has not been started");
+        }
+        return streams;
+    }
+
+    public static class WindowCount {
+        private final long start;
+        private final long end;
+        private final long count;
+
+        WindowCount(long start, long end, long count) {
+            this.start = start;
+            this.end = end;
+            this.count = count;
+        }
+
+        public long getStart() {
+            return start;
+        }
+
+        public long getEnd() {
+            return end;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public String toJson() {
+            return "{\"start\":" + start + ",\"end\":" + end + ",\"count\":" + count + "}";
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.kafka.streams.errors.InvalidStateStoreException;
+import org.apache.kafka.streams.state.HostInfo;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+// Serves GET /counts/{tumbling|hopping}/{key}?from=<epoch ms>&to=<epoch ms> from the local window stores.
+// Requests for keys hosted elsewhere are redirected to the owning instance.
+@Component
+public class WindowedCountsHttpServer implements InitializingBean, DisposableBean {
+    private static final Log logger = LogFactory.getLog(WindowedCountsHttpServer.class);
+    private static final String PREFIX = "/counts/";
+
+    @Autowired
+    private WindowedCounts windowedCounts;
+
+    @Value(value = "${kafka.streams.host:localhost}")
+    private String host;
+
+    @Value(value = "${kafka.streams.http.port:7070}")
+    private int port;
+
+    @Value(value = "${kafka.streams.http.threads:4}")
+    private int threads;
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    @Override
+    public void afterPropertiesSet() throws IOException {
+        executor = Executors.newFixedThreadPool(threads);
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext(PREFIX, this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    @Override
+    public void destroy() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String[] path = exchange.getRequestURI().getRawPath().substring(PREFIX.length()).split("/", 2);
+            String store = path[0].equals("tumbling") ? WindowedCounts.TUMBLING_STORE
+                    : path[0].equals("hopping") ? WindowedCounts.HOPPING_STORE : null;
+            if (!"GET".equals(exchange.getRequestMethod()) || store == null || path.length < 2 || path[1].isEmpty()) {
+                respond(exchange, 404, "{\"error\":\"not found\"}");
+                return;
+            }
+            String key = URLDecoder.decode(path[1], StandardCharsets.UTF_8);
+            HostInfo owner = windowedCounts.owner(store, key);
+            if (owner == null) {
+                unavailable(exchange);
+                return;
+            }
+            if (!owner.host().equals(host) || owner.port() != port) {
+                exchange.getResponseHeaders().set("Location", "http://" + owner.host() + ":" + owner.port()
+                        + exchange.getRequestURI());
+                respond(exchange, 307, "");
+                return;
+            }
+            Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+            Instant to = query.containsKey("to") ? Instant.ofEpochMilli(Long.parseLong(query.get("to"))) : Instant.now();
+            Instant from = query.containsKey("from") ? Instant.ofEpochMilli(Long.parseLong(query.get("from")))
+                    : to.minus(Duration.ofHours(1));
+            List<WindowedCounts.WindowCount> counts = windowedCounts.fetch(store, key, from, to);
+            respond(exchange, 200, counts.stream().map(WindowedCounts.WindowCount::toJson)
+                    .collect(Collectors.joining(",", "[", "]")));
+        } catch (InvalidStateStoreException e) {
+            unavailable(exchange);
+        } catch (NumberFormatException e) {
+            respond(exchange, 400, "{\"error\":\"from and to must be epoch milliseconds\"}");
+        } catch (RuntimeException e) {
+            logger.error("Failed to serve " + exchange.getRequestURI(), e);
+            respond(exchange, 500, "{\"error\":\"internal error\"}");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // Stores are unavailable while partitions move between instances or are restored from their changelogs.
+    private void unavailable(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Retry-After", "1");
+        respond(exchange, 503, "{\"error\":\"store not available, retry later\"}");
+    }
+
+    private void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        if (bytes.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    private Map<String, String> query(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery != null) {
+            for (String pair : rawQuery.split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq > 0) {
+                    params.put(pair.substring(0, eq), URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return params;
+    }
+}
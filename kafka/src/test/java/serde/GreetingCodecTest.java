@@ -0,0 +1,123 @@
+package serde;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GreetingCodecTest {
+    private final GreetingSerializer serializer = new GreetingSerializer();
+    private final GreetingDeserializer deserializer = new GreetingDeserializer();
+
+    @Test
+    void roundTripsAllFields() {
+        GreetingView view = roundTrip(new Greeting(1650000000123L, "Gr\u00fc\u00dfe aus K\u00f6ln", "Zo\u00eb"));
+
+        assertEquals(GreetingCodec.CURRENT_VERSION, view.getVersion());
+        assertEquals(1650000000123L, view.getTimestamp());
+        assertEquals("Gr\u00fc\u00dfe aus K\u00f6ln", view.getMsg());
+        assertEquals("Zo\u00eb", view.getName());
+    }
+
+    @Test
+    void roundTripsNullAndEmptyStrings() {
+        GreetingView view = roundTrip(new Greeting(42L, "", null));
+
+        assertEquals("", view.getMsg());
+        assertNull(view.getName());
+    }
+
+    @Test
+    void growsTheScratchBufferForLargeMessages() {
+        char[] chars = new char[20000];
+        Arrays.fill(chars, 'x');
+        String msg = new String(chars);
+
+        assertEquals(msg, roundTrip(new Greeting(1L, msg, "n")).getMsg());
+    }
+
+    @Test
+    void rejectsStringsLongerThanTheLengthField() {
+        char[] chars = new char[0xFFFF];
+        Arrays.fill(chars, 'x');
+
+        assertThrows(IllegalArgumentException.class,
+                () -> serializer.serialize("greeting", new Greeting(1L, new String(chars), null)));
+    }
+
+    @Test
+    void readsVersion1Payloads() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        buffer.put((byte) 1).putLong(7L);
+        putString(buffer, "hello");
+
+        GreetingView view = deserializer.deserialize("greeting", Arrays.copyOf(buffer.array(), buffer.position()));
+
+        assertEquals(7L, view.getTimestamp());
+        assertEquals("hello", view.getMsg());
+        assertNull(view.getName());
+    }
+
+    @Test
+    void skipsTrailingFieldsOfNewerVersions() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        buffer.put((byte) 3).putLong(7L);
+        putString(buffer, "hello");
+        putString(buffer, "bob");
+        putString(buffer, "a field added in v3");
+
+        GreetingView view = deserializer.deserialize("greeting", Arrays.copyOf(buffer.array(), buffer.position()));
+
+        assertEquals(3, view.getVersion());
+        assertEquals("hello", view.getMsg());
+        assertEquals("bob", view.getName());
+    }
+
+    @Test
+    void forwardsTheReceivedBytesUnchanged() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        buffer.put((byte) 3).putLong(7L);
+        putString(buffer, "hello");
+        putString(buffer, "bob");
+        putString(buffer, "a field added in v3");
+        byte[] data = Arrays.copyOf(buffer.array(), buffer.position());
+
+        byte[] forwarded = new GreetingViewSerializer().serialize("greeting-dlt", deserializer.deserialize("greeting", data));
+
+        assertArrayEquals(data, forwarded);
+    }
+
+    @Test
+    void rejectsInvalidVersion() {
+        byte[] data = serializer.serialize("greeting", new Greeting(1L, "m", "n"));
+        data[0] = 0;
+
+        assertThrows(IllegalArgumentException.class, () -> deserializer.deserialize("greeting", data));
+    }
+
+    @Test
+    void rejectsTruncatedPayloads() {
+        byte[] data = serializer.serialize("greeting", new Greeting(1L, "message", "name"));
+
+        for (int length = 0; length < data.length; length++) {
+            byte[] truncated = Arrays.copyOf(data, length);
+            assertThrows(IllegalArgumentException.class, () -> deserializer.deserialize("greeting", truncated),
+                    "length " + length);
+        }
+    }
+
+    private GreetingView roundTrip(Greeting greeting) {
+        return deserializer.deserialize("greeting", serializer.serialize("greeting", greeting));
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length).put(bytes);
+    }
+}
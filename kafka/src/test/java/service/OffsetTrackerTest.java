@@ -0,0 +1,91 @@
+package service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OffsetTrackerTest {
+    private final ParallelRecordProcessor.OffsetTracker tracker = new ParallelRecordProcessor.OffsetTracker();
+
+    @Test
+    void commitsNothingPastTheFirstUnfinishedOffset() {
+        tracker.started(10);
+        tracker.started(11);
+        tracker.completed(11);
+
+        assertEquals(10, tracker.nextCommit());
+        assertEquals(-1, tracker.nextCommit());
+    }
+
+    @Test
+    void commitsUpToTheLowestUnfinishedOffset() {
+        for (long offset = 10; offset <= 14; offset++) {
+            tracker.started(offset);
+        }
+        tracker.completed(10);
+        tracker.completed(11);
+        tracker.completed(13);
+
+        assertEquals(12, tracker.nextCommit());
+        assertEquals(-1, tracker.nextCommit());
+
+        tracker.completed(12);
+        assertEquals(14, tracker.nextCommit());
+
+        tracker.completed(14);
+        assertEquals(15, tracker.nextCommit());
+    }
+
+    @Test
+    void offsetGapsFromCompactionAreSkipped() {
+        tracker.started(10);
+        tracker.started(15);
+        tracker.started(20);
+        tracker.completed(10);
+        tracker.completed(15);
+        tracker.completed(20);
+
+        assertEquals(21, tracker.nextCommit());
+    }
+
+    @Test
+    void failedOffsetHoldsTheCommitPosition() {
+        tracker.started(10);
+        tracker.started(11);
+        tracker.started(12);
+        tracker.completed(10);
+        tracker.failed(11);
+        tracker.completed(12);
+
+        assertEquals(11, tracker.nextCommit());
+        assertEquals(-1, tracker.nextCommit());
+    }
+
+    @Test
+    void drainWaitsForRunningRecordsOnly() throws InterruptedException {
+        tracker.started(10);
+        tracker.started(11);
+        tracker.failed(10);
+        Thread lane = new Thread(() -> {
+            sleep(50);
+            tracker.completed(11);
+        });
+        lane.start();
+
+        long start = System.currentTimeMillis();
+        tracker.awaitDrained(start + 5000);
+        lane.join();
+
+        assertTrue(System.currentTimeMillis() - start < 5000);
+        assertEquals(10, tracker.nextCommit());
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}